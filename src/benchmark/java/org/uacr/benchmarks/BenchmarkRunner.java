@@ -0,0 +1,57 @@
+package org.uacr.benchmarks;
+
+/**
+ * Times an operation for the benchmarks in this package, which are run with the benchmark gradle task
+ * The operation is run for a warm up period so the JIT has compiled it, then timed over several rounds and the median is printed
+ * <p>
+ * This is not a replacement for JMH, it is meant for comparing implementations that differ by much more than the noise of a simple loop
+ */
+
+public class BenchmarkRunner {
+
+    private static final long WARM_UP_NANOS = 2000000000L;
+    private static final int ROUNDS = 7;
+
+    // Written with the results of the operation so the JIT cannot remove the work
+    private static volatile long sSink;
+
+    /**
+     * An operation to time, its result is consumed so the work it does is not optimized away
+     */
+    public interface Operation {
+
+        long run(int iteration);
+    }
+
+    /**
+     * Prints the median time of one call of the operation
+     *
+     * @param name       the name printed with the result
+     * @param iterations the number of calls in each timed round
+     * @param operation  the operation to time
+     */
+    public static void run(String name, int iterations, Operation operation) {
+        long warmUpEnd = System.nanoTime() + WARM_UP_NANOS;
+        while (System.nanoTime() < warmUpEnd) {
+            sSink += runRound(iterations, operation);
+        }
+
+        double[] roundNanos = new double[ROUNDS];
+        for (int r = 0; r < ROUNDS; r++) {
+            long startTime = System.nanoTime();
+            sSink += runRound(iterations, operation);
+            roundNanos[r] = (double) (System.nanoTime() - startTime) / iterations;
+        }
+        java.util.Arrays.sort(roundNanos);
+
+        System.out.println(String.format("%-50s %12.1f ns/op (min %.1f, max %.1f)", name, roundNanos[ROUNDS / 2], roundNanos[0], roundNanos[ROUNDS - 1]));
+    }
+
+    private static long runRound(int iterations, Operation operation) {
+        long result = 0;
+        for (int i = 0; i < iterations; i++) {
+            result += operation.run(i);
+        }
+        return result;
+    }
+}
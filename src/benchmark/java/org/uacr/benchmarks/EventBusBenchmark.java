@@ -0,0 +1,75 @@
+package org.uacr.benchmarks;
+
+import org.uacr.utilities.eventbus.AbstractEventBus;
+import org.uacr.utilities.eventbus.AsyncEventBus;
+import org.uacr.utilities.eventbus.Subscribe;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Measures the cost of posting an event to 1, 10 and 100 listeners with the AsyncEventBus and the reflective bus it replaced
+ * Events are delivered on the posting thread so the time includes finding and calling the subscribers but not thread hand off
+ */
+
+public class EventBusBenchmark {
+
+    private static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+    public static void main(String[] args) {
+        for (int listeners : new int[]{1, 10, 100}) {
+            int iterations = 1000000 / listeners;
+
+            BenchmarkRunner.run("AsyncEventBus.post, " + listeners + " listeners", iterations, createPost(new AsyncEventBus(DIRECT_EXECUTOR), listeners));
+            BenchmarkRunner.run("ReflectiveEventBus.post, " + listeners + " listeners", iterations, createPost(new ReflectiveEventBus(DIRECT_EXECUTOR), listeners));
+        }
+    }
+
+    private static BenchmarkRunner.Operation createPost(AbstractEventBus eventBus, int listenerCount) {
+        TestListener[] listeners = new TestListener[listenerCount];
+        for (int l = 0; l < listenerCount; l++) {
+            listeners[l] = new TestListener();
+            eventBus.register(listeners[l]);
+        }
+
+        TestEvent event = new TestEvent();
+        return iteration -> {
+            event.mValue = iteration;
+            eventBus.post(event);
+            return listeners[0].mTotal;
+        };
+    }
+
+    public static class TestEvent {
+
+        private int mValue;
+    }
+
+    public static class OtherEvent {
+    }
+
+    /**
+     * A listener with a few subscribers and other methods, like the services that listen for sim events
+     */
+    public static class TestListener {
+
+        private long mTotal;
+
+        @Subscribe
+        public void onTestEvent(TestEvent event) {
+            mTotal += event.mValue;
+        }
+
+        @Subscribe
+        public void onOtherEvent(OtherEvent event) {
+            mTotal--;
+        }
+
+        public long getTotal() {
+            return mTotal;
+        }
+
+        public void reset() {
+            mTotal = 0;
+        }
+    }
+}
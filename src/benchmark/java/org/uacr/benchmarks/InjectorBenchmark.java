@@ -0,0 +1,606 @@
+package org.uacr.benchmarks;
+
+import org.uacr.utilities.injection.AbstractModule;
+import org.uacr.utilities.injection.Inject;
+import org.uacr.utilities.injection.Injector;
+import org.uacr.utilities.injection.ReflectiveInjector;
+import org.uacr.utilities.injection.Singleton;
+
+/**
+ * Measures getInstance and creating the injector with a module of 50 bindings, like a robot's module of shared objects and models,
+ * against the reflective injector it replaced
+ * <p>
+ * 10 of the bindings are singletons with no dependencies like the shared objects, the other 40 depend on two singletons and every fifth also on another model
+ */
+
+public class InjectorBenchmark {
+
+    private static final Class<?>[] MODELS = {
+            ModelImpl0.class, ModelImpl1.class, ModelImpl2.class, ModelImpl3.class, ModelImpl4.class, ModelImpl5.class, ModelImpl6.class, ModelImpl7.class,
+            ModelImpl8.class, ModelImpl9.class, ModelImpl10.class, ModelImpl11.class, ModelImpl12.class, ModelImpl13.class, ModelImpl14.class, ModelImpl15.class,
+            ModelImpl16.class, ModelImpl17.class, ModelImpl18.class, ModelImpl19.class, ModelImpl20.class, ModelImpl21.class, ModelImpl22.class, ModelImpl23.class,
+            ModelImpl24.class, ModelImpl25.class, ModelImpl26.class, ModelImpl27.class, ModelImpl28.class, ModelImpl29.class, ModelImpl30.class, ModelImpl31.class,
+            ModelImpl32.class, ModelImpl33.class, ModelImpl34.class, ModelImpl35.class, ModelImpl36.class, ModelImpl37.class, ModelImpl38.class, ModelImpl39.class
+    };
+
+    public static void main(String[] args) {
+        Injector injector = new Injector(new BenchmarkModule());
+        ReflectiveInjector reflectiveInjector = new ReflectiveInjector(new BenchmarkModule());
+
+        BenchmarkRunner.run("Injector.getInstance, bound model", 1000000, iteration -> injector.getInstance(MODELS[iteration % MODELS.length]).hashCode());
+        BenchmarkRunner.run("ReflectiveInjector.getInstance, bound model (before)", 100000, iteration -> reflectiveInjector.getInstance(MODELS[iteration % MODELS.length]).hashCode());
+
+        BenchmarkRunner.run("Injector.getInstance, singleton", 1000000, iteration -> injector.getInstance(SharedService9.class).hashCode());
+        BenchmarkRunner.run("ReflectiveInjector.getInstance, singleton (before)", 1000000, iteration -> reflectiveInjector.getInstance(SharedService9.class).hashCode());
+
+        BenchmarkRunner.run("new Injector", 1000, iteration -> new Injector(new BenchmarkModule()).hashCode());
+        BenchmarkRunner.run("new ReflectiveInjector (before)", 1000, iteration -> new ReflectiveInjector(new BenchmarkModule()).hashCode());
+    }
+
+    private static class BenchmarkModule extends AbstractModule {
+
+        @Override
+        protected void configure() {
+            bind(Service0.class, SharedService0.class);
+            bind(Service1.class, SharedService1.class);
+            bind(Service2.class, SharedService2.class);
+            bind(Service3.class, SharedService3.class);
+            bind(Service4.class, SharedService4.class);
+            bind(Service5.class, SharedService5.class);
+            bind(Service6.class, SharedService6.class);
+            bind(Service7.class, SharedService7.class);
+            bind(Service8.class, SharedService8.class);
+            bind(Service9.class, SharedService9.class);
+            bind(Model0.class, ModelImpl0.class);
+            bind(Model1.class, ModelImpl1.class);
+            bind(Model2.class, ModelImpl2.class);
+            bind(Model3.class, ModelImpl3.class);
+            bind(Model4.class, ModelImpl4.class);
+            bind(Model5.class, ModelImpl5.class);
+            bind(Model6.class, ModelImpl6.class);
+            bind(Model7.class, ModelImpl7.class);
+            bind(Model8.class, ModelImpl8.class);
+            bind(Model9.class, ModelImpl9.class);
+            bind(Model10.class, ModelImpl10.class);
+            bind(Model11.class, ModelImpl11.class);
+            bind(Model12.class, ModelImpl12.class);
+            bind(Model13.class, ModelImpl13.class);
+            bind(Model14.class, ModelImpl14.class);
+            bind(Model15.class, ModelImpl15.class);
+            bind(Model16.class, ModelImpl16.class);
+            bind(Model17.class, ModelImpl17.class);
+            bind(Model18.class, ModelImpl18.class);
+            bind(Model19.class, ModelImpl19.class);
+            bind(Model20.class, ModelImpl20.class);
+            bind(Model21.class, ModelImpl21.class);
+            bind(Model22.class, ModelImpl22.class);
+            bind(Model23.class, ModelImpl23.class);
+            bind(Model24.class, ModelImpl24.class);
+            bind(Model25.class, ModelImpl25.class);
+            bind(Model26.class, ModelImpl26.class);
+            bind(Model27.class, ModelImpl27.class);
+            bind(Model28.class, ModelImpl28.class);
+            bind(Model29.class, ModelImpl29.class);
+            bind(Model30.class, ModelImpl30.class);
+            bind(Model31.class, ModelImpl31.class);
+            bind(Model32.class, ModelImpl32.class);
+            bind(Model33.class, ModelImpl33.class);
+            bind(Model34.class, ModelImpl34.class);
+            bind(Model35.class, ModelImpl35.class);
+            bind(Model36.class, ModelImpl36.class);
+            bind(Model37.class, ModelImpl37.class);
+            bind(Model38.class, ModelImpl38.class);
+            bind(Model39.class, ModelImpl39.class);
+        }
+    }
+
+    public interface Service0 {
+    }
+
+    public interface Service1 {
+    }
+
+    public interface Service2 {
+    }
+
+    public interface Service3 {
+    }
+
+    public interface Service4 {
+    }
+
+    public interface Service5 {
+    }
+
+    public interface Service6 {
+    }
+
+    public interface Service7 {
+    }
+
+    public interface Service8 {
+    }
+
+    public interface Service9 {
+    }
+
+    @Singleton
+    public static class SharedService0 implements Service0 {
+
+        @Inject
+        public SharedService0() {
+        }
+    }
+
+    @Singleton
+    public static class SharedService1 implements Service1 {
+
+        @Inject
+        public SharedService1() {
+        }
+    }
+
+    @Singleton
+    public static class SharedService2 implements Service2 {
+
+        @Inject
+        public SharedService2() {
+        }
+    }
+
+    @Singleton
+    public static class SharedService3 implements Service3 {
+
+        @Inject
+        public SharedService3() {
+        }
+    }
+
+    @Singleton
+    public static class SharedService4 implements Service4 {
+
+        @Inject
+        public SharedService4() {
+        }
+    }
+
+    @Singleton
+    public static class SharedService5 implements Service5 {
+
+        @Inject
+        public SharedService5() {
+        }
+    }
+
+    @Singleton
+    public static class SharedService6 implements Service6 {
+
+        @Inject
+        public SharedService6() {
+        }
+    }
+
+    @Singleton
+    public static class SharedService7 implements Service7 {
+
+        @Inject
+        public SharedService7() {
+        }
+    }
+
+    @Singleton
+    public static class SharedService8 implements Service8 {
+
+        @Inject
+        public SharedService8() {
+        }
+    }
+
+    @Singleton
+    public static class SharedService9 implements Service9 {
+
+        @Inject
+        public SharedService9() {
+        }
+    }
+
+    public interface Model0 {
+    }
+
+    public interface Model1 {
+    }
+
+    public interface Model2 {
+    }
+
+    public interface Model3 {
+    }
+
+    public interface Model4 {
+    }
+
+    public interface Model5 {
+    }
+
+    public interface Model6 {
+    }
+
+    public interface Model7 {
+    }
+
+    public interface Model8 {
+    }
+
+    public interface Model9 {
+    }
+
+    public interface Model10 {
+    }
+
+    public interface Model11 {
+    }
+
+    public interface Model12 {
+    }
+
+    public interface Model13 {
+    }
+
+    public interface Model14 {
+    }
+
+    public interface Model15 {
+    }
+
+    public interface Model16 {
+    }
+
+    public interface Model17 {
+    }
+
+    public interface Model18 {
+    }
+
+    public interface Model19 {
+    }
+
+    public interface Model20 {
+    }
+
+    public interface Model21 {
+    }
+
+    public interface Model22 {
+    }
+
+    public interface Model23 {
+    }
+
+    public interface Model24 {
+    }
+
+    public interface Model25 {
+    }
+
+    public interface Model26 {
+    }
+
+    public interface Model27 {
+    }
+
+    public interface Model28 {
+    }
+
+    public interface Model29 {
+    }
+
+    public interface Model30 {
+    }
+
+    public interface Model31 {
+    }
+
+    public interface Model32 {
+    }
+
+    public interface Model33 {
+    }
+
+    public interface Model34 {
+    }
+
+    public interface Model35 {
+    }
+
+    public interface Model36 {
+    }
+
+    public interface Model37 {
+    }
+
+    public interface Model38 {
+    }
+
+    public interface Model39 {
+    }
+
+    public static class ModelImpl0 implements Model0 {
+
+        @Inject
+        public ModelImpl0(Service0 service, Service3 otherService) {
+        }
+    }
+
+    public static class ModelImpl1 implements Model1 {
+
+        @Inject
+        public ModelImpl1(Service1 service, Service4 otherService) {
+        }
+    }
+
+    public static class ModelImpl2 implements Model2 {
+
+        @Inject
+        public ModelImpl2(Service2 service, Service5 otherService) {
+        }
+    }
+
+    public static class ModelImpl3 implements Model3 {
+
+        @Inject
+        public ModelImpl3(Service3 service, Service6 otherService) {
+        }
+    }
+
+    public static class ModelImpl4 implements Model4 {
+
+        @Inject
+        public ModelImpl4(Service4 service, Service7 otherService, Model3 model) {
+        }
+    }
+
+    public static class ModelImpl5 implements Model5 {
+
+        @Inject
+        public ModelImpl5(Service5 service, Service8 otherService) {
+        }
+    }
+
+    public static class ModelImpl6 implements Model6 {
+
+        @Inject
+        public ModelImpl6(Service6 service, Service9 otherService) {
+        }
+    }
+
+    public static class ModelImpl7 implements Model7 {
+
+        @Inject
+        public ModelImpl7(Service7 service, Service0 otherService) {
+        }
+    }
+
+    public static class ModelImpl8 implements Model8 {
+
+        @Inject
+        public ModelImpl8(Service8 service, Service1 otherService) {
+        }
+    }
+
+    public static class ModelImpl9 implements Model9 {
+
+        @Inject
+        public ModelImpl9(Service9 service, Service2 otherService, Model8 model) {
+        }
+    }
+
+    public static class ModelImpl10 implements Model10 {
+
+        @Inject
+        public ModelImpl10(Service0 service, Service3 otherService) {
+        }
+    }
+
+    public static class ModelImpl11 implements Model11 {
+
+        @Inject
+        public ModelImpl11(Service1 service, Service4 otherService) {
+        }
+    }
+
+    public static class ModelImpl12 implements Model12 {
+
+        @Inject
+        public ModelImpl12(Service2 service, Service5 otherService) {
+        }
+    }
+
+    public static class ModelImpl13 implements Model13 {
+
+        @Inject
+        public ModelImpl13(Service3 service, Service6 otherService) {
+        }
+    }
+
+    public static class ModelImpl14 implements Model14 {
+
+        @Inject
+        public ModelImpl14(Service4 service, Service7 otherService, Model13 model) {
+        }
+    }
+
+    public static class ModelImpl15 implements Model15 {
+
+        @Inject
+        public ModelImpl15(Service5 service, Service8 otherService) {
+        }
+    }
+
+    public static class ModelImpl16 implements Model16 {
+
+        @Inject
+        public ModelImpl16(Service6 service, Service9 otherService) {
+        }
+    }
+
+    public static class ModelImpl17 implements Model17 {
+
+        @Inject
+        public ModelImpl17(Service7 service, Service0 otherService) {
+        }
+    }
+
+    public static class ModelImpl18 implements Model18 {
+
+        @Inject
+        public ModelImpl18(Service8 service, Service1 otherService) {
+        }
+    }
+
+    public static class ModelImpl19 implements Model19 {
+
+        @Inject
+        public ModelImpl19(Service9 service, Service2 otherService, Model18 model) {
+        }
+    }
+
+    public static class ModelImpl20 implements Model20 {
+
+        @Inject
+        public ModelImpl20(Service0 service, Service3 otherService) {
+        }
+    }
+
+    public static class ModelImpl21 implements Model21 {
+
+        @Inject
+        public ModelImpl21(Service1 service, Service4 otherService) {
+        }
+    }
+
+    public static class ModelImpl22 implements Model22 {
+
+        @Inject
+        public ModelImpl22(Service2 service, Service5 otherService) {
+        }
+    }
+
+    public static class ModelImpl23 implements Model23 {
+
+        @Inject
+        public ModelImpl23(Service3 service, Service6 otherService) {
+        }
+    }
+
+    public static class ModelImpl24 implements Model24 {
+
+        @Inject
+        public ModelImpl24(Service4 service, Service7 otherService, Model23 model) {
+        }
+    }
+
+    public static class ModelImpl25 implements Model25 {
+
+        @Inject
+        public ModelImpl25(Service5 service, Service8 otherService) {
+        }
+    }
+
+    public static class ModelImpl26 implements Model26 {
+
+        @Inject
+        public ModelImpl26(Service6 service, Service9 otherService) {
+        }
+    }
+
+    public static class ModelImpl27 implements Model27 {
+
+        @Inject
+        public ModelImpl27(Service7 service, Service0 otherService) {
+        }
+    }
+
+    public static class ModelImpl28 implements Model28 {
+
+        @Inject
+        public ModelImpl28(Service8 service, Service1 otherService) {
+        }
+    }
+
+    public static class ModelImpl29 implements Model29 {
+
+        @Inject
+        public ModelImpl29(Service9 service, Service2 otherService, Model28 model) {
+        }
+    }
+
+    public static class ModelImpl30 implements Model30 {
+
+        @Inject
+        public ModelImpl30(Service0 service, Service3 otherService) {
+        }
+    }
+
+    public static class ModelImpl31 implements Model31 {
+
+        @Inject
+        public ModelImpl31(Service1 service, Service4 otherService) {
+        }
+    }
+
+    public static class ModelImpl32 implements Model32 {
+
+        @Inject
+        public ModelImpl32(Service2 service, Service5 otherService) {
+        }
+    }
+
+    public static class ModelImpl33 implements Model33 {
+
+        @Inject
+        public ModelImpl33(Service3 service, Service6 otherService) {
+        }
+    }
+
+    public static class ModelImpl34 implements Model34 {
+
+        @Inject
+        public ModelImpl34(Service4 service, Service7 otherService, Model33 model) {
+        }
+    }
+
+    public static class ModelImpl35 implements Model35 {
+
+        @Inject
+        public ModelImpl35(Service5 service, Service8 otherService) {
+        }
+    }
+
+    public static class ModelImpl36 implements Model36 {
+
+        @Inject
+        public ModelImpl36(Service6 service, Service9 otherService) {
+        }
+    }
+
+    public static class ModelImpl37 implements Model37 {
+
+        @Inject
+        public ModelImpl37(Service7 service, Service0 otherService) {
+        }
+    }
+
+    public static class ModelImpl38 implements Model38 {
+
+        @Inject
+        public ModelImpl38(Service8 service, Service1 otherService) {
+        }
+    }
+
+    public static class ModelImpl39 implements Model39 {
+
+        @Inject
+        public ModelImpl39(Service9 service, Service2 otherService, Model38 model) {
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.uacr.benchmarks;
+
+import org.uacr.utilities.logging.LogHandler;
+import org.uacr.utilities.logging.LogManager;
+import org.uacr.utilities.logging.Logger;
+import org.uacr.utilities.logging.MessageTemplate;
+
+/**
+ * Measures the cost of log calls that are below the log level and of formatting messages that are logged,
+ * against the varargs Logger and regex message building they replaced
+ */
+
+public class LoggingBenchmark {
+
+    private static final String MESSAGE = "Frame took {} ms, {} states active";
+
+    public static void main(String[] args) {
+        Logger disabledLogger = LogManager.getLogger("LoggingBenchmark.Disabled");
+        LogManager.setLogLevel("LoggingBenchmark.Disabled", LogManager.Level.INFO);
+        VarargsLogger varargsLogger = new VarargsLogger(LogManager.Level.INFO);
+
+        // Doubles are boxed on every call, like the frame times and sensor values usually logged
+        BenchmarkRunner.run("Logger.debug disabled, 2 args", 10000000, iteration -> {
+            disabledLogger.debug(MESSAGE, iteration * 0.5, iteration);
+            return iteration;
+        });
+        BenchmarkRunner.run("varargs debug disabled, 2 args (before)", 10000000, iteration -> {
+            varargsLogger.debug(MESSAGE, iteration * 0.5, iteration);
+            return iteration;
+        });
+
+        Object[] messageArgs = {3.25, 4};
+        BenchmarkRunner.run("MessageTemplate.format, 2 args", 1000000, iteration -> MessageTemplate.get(MESSAGE).format(messageArgs).length());
+        BenchmarkRunner.run("regex buildMessage, 2 args (before)", 1000000, iteration -> VarargsLogger.buildMessage(MESSAGE, messageArgs).length());
+
+        // Everything but printing, the only handler drops the formatted line
+        LogManager.setDefaultLogHandler(new DiscardingLogHandler());
+        Logger enabledLogger = LogManager.getLogger("LoggingBenchmark.Enabled");
+        LogManager.setLogLevel("LoggingBenchmark.Enabled", LogManager.Level.INFO);
+        BenchmarkRunner.run("Logger.info enabled, 2 args", 1000000, iteration -> {
+            enabledLogger.info(MESSAGE, iteration * 0.5, iteration);
+            return iteration;
+        });
+    }
+
+    /**
+     * The Logger before the fixed argument overloads, the arguments array is created before the level is checked
+     */
+    private static class VarargsLogger {
+
+        private final LogManager.Level fLevel;
+
+        private VarargsLogger(LogManager.Level level) {
+            fLevel = level;
+        }
+
+        private void debug(String message, Object... args) {
+            log(LogManager.Level.DEBUG, message, args);
+        }
+
+        private void log(LogManager.Level level, String message, Object... args) {
+            if (fLevel.getPriority() > level.getPriority()) {
+                return;
+            }
+            buildMessage(message, args);
+        }
+
+        // The message building before templates were cached
+        private static String buildMessage(String message, Object... args) {
+            if (message.endsWith("{}")) {
+                message += " ";
+            }
+
+            StringBuilder line = new StringBuilder();
+
+            String[] parts = message.split("\\{\\}");
+
+            for (int p = 0; p < parts.length - 1; p++) {
+                line.append(parts[p]);
+                if (p < args.length) {
+                    line.append(args[p]);
+                }
+            }
+
+            line.append(parts[parts.length - 1]);
+
+            return line.toString().trim();
+        }
+    }
+
+    private static class DiscardingLogHandler implements LogHandler {
+
+        @Override
+        public void trace(String message) {
+        }
+
+        @Override
+        public void debug(String message) {
+        }
+
+        @Override
+        public void info(String message) {
+        }
+
+        @Override
+        public void error(String message) {
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.uacr.benchmarks;
+
+import org.uacr.utilities.eventbus.AbstractEventBus;
+import org.uacr.utilities.eventbus.Subscribe;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * The AsyncEventBus before subscribers were compiled into a table, kept to compare against
+ * Every post scans the methods and annotations of every listener and calls the subscribers with Method.invoke
+ */
+
+public class ReflectiveEventBus extends AbstractEventBus {
+
+    private final Executor fExecutor;
+    private final Set<Object> fListeners;
+
+    public ReflectiveEventBus(Executor executor) {
+        fExecutor = executor;
+        fListeners = Collections.synchronizedSet(new HashSet<>());
+    }
+
+    @Override
+    public void register(Object listener) {
+        fListeners.add(listener);
+    }
+
+    @Override
+    public void unregister(Object listener) {
+        fListeners.remove(listener);
+    }
+
+    @Override
+    public void post(Object event) {
+        for (Object listener : fListeners) {
+            for (Method method : listener.getClass().getMethods()) {
+                Class[] parameters = method.getParameterTypes();
+                if (parameters.length == 1 && parameters[0].equals(event.getClass())) {
+                    for (Annotation annotation : method.getDeclaredAnnotations()) {
+                        if (annotation.annotationType().equals(Subscribe.class)) {
+                            fExecutor.execute(() -> {
+                                try {
+                                    method.invoke(listener, event);
+                                } catch (IllegalAccessException e) {
+                                    e.printStackTrace();
+                                } catch (InvocationTargetException e) {
+                                    e.getCause().printStackTrace();
+                                }
+                            });
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
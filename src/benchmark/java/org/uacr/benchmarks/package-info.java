@@ -0,0 +1,4 @@
+@NonNullByDefault
+package org.uacr.benchmarks;
+
+import org.uacr.NonNullByDefault;
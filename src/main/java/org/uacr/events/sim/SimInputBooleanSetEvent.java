@@ -4,7 +4,7 @@ package org.uacr.events.sim;
  * Eventbus event for setting an InputBoolean in sim mode
  */
 
-public class SimInputBooleanSetEvent {
+public class SimInputBooleanSetEvent implements SimInputSetEvent {
 
     public final boolean fValue;
     public final String fName;
@@ -17,4 +17,9 @@ public class SimInputBooleanSetEvent {
         fValue = value;
         fName = name;
     }
+
+    @Override
+    public String getName() {
+        return fName;
+    }
 }
@@ -4,7 +4,7 @@ package org.uacr.events.sim;
  * Eventbus event for setting an InputNumeric in sim mode
  */
 
-public class SimInputNumericSetEvent {
+public class SimInputNumericSetEvent implements SimInputSetEvent {
 
     public final double fValue;
     public final String fName;
@@ -17,4 +17,9 @@ public class SimInputNumericSetEvent {
         fValue = value;
         fName = name;
     }
+
+    @Override
+    public String getName() {
+        return fName;
+    }
 }
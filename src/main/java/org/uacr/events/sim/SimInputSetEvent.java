@@ -0,0 +1,14 @@
+package org.uacr.events.sim;
+
+/**
+ * Implemented by every eventbus event that sets an input in sim mode
+ * Subscribe to this type to receive all of them
+ */
+
+public interface SimInputSetEvent {
+
+    /**
+     * @return the name of the input being set
+     */
+    String getName();
+}
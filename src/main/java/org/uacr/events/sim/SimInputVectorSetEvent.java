@@ -6,7 +6,7 @@ import java.util.Map;
  * Eventbus event for setting an InputVector in sim mode
  */
 
-public class SimInputVectorSetEvent {
+public class SimInputVectorSetEvent implements SimInputSetEvent {
 
     public final Map<String, Double> fValues;
     public final String fName;
@@ -19,4 +19,9 @@ public class SimInputVectorSetEvent {
         fValues = values;
         fName = name;
     }
+
+    @Override
+    public String getName() {
+        return fName;
+    }
 }
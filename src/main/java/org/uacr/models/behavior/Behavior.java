@@ -1,7 +1,9 @@
 package org.uacr.models.behavior;
 
 import org.uacr.utilities.Config;
+import org.uacr.utilities.ConfigSchema;
 
+import javax.annotation.Nullable;
 import java.util.Set;
 
 /**
@@ -16,6 +18,17 @@ public interface Behavior {
      */
     Set<String> getSubsystems();
 
+    /**
+     * The values the behavior reads from the behavior_config of its states
+     * When a schema is returned every state using the behavior compiles its config at startup, so configuration mistakes are found before the match
+     * and config.compile(schema) in initialize returns the already compiled values
+     * @return the schema of the behavior config, or null if the behavior reads its config directly
+     */
+    @Nullable
+    default ConfigSchema getConfigSchema() {
+        return null;
+    }
+
     /**
      * Initializes the behavior to run the requested state
      * This is a place to read values from the state config file
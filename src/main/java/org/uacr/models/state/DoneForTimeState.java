@@ -2,7 +2,7 @@ package org.uacr.models.state;
 
 import org.uacr.robot.AbstractModelFactory;
 import org.uacr.utilities.Config;
-import org.uacr.utilities.Timer;
+import org.uacr.utilities.FrameTimer;
 import org.uacr.utilities.YamlConfigParser;
 import org.uacr.utilities.logging.LogManager;
 import org.uacr.utilities.logging.Logger;
@@ -25,8 +25,8 @@ public class DoneForTimeState implements State {
 
     private static final Logger sLogger = LogManager.getLogger(DoneForTimeState.class);
 
-    private final Timer fStateTimer;
-    private final Timer fMaxTimer;
+    private final FrameTimer fStateTimer;
+    private final FrameTimer fMaxTimer;
     private final State fSubState;
     private final int fStateTimeout;
     private final int fMaxTimeout;
@@ -41,8 +41,8 @@ public class DoneForTimeState implements State {
      */
 
     public DoneForTimeState(AbstractModelFactory modelFactory, String name, YamlConfigParser parser, Config config) {
-        fStateTimer = new Timer();
-        fMaxTimer = new Timer();
+        fStateTimer = modelFactory.getFrameTimerWheel().createTimer();
+        fMaxTimer = modelFactory.getFrameTimerWheel().createTimer();
         fStateTimeout = config.getInt("state_timeout");
         fMaxTimeout = config.getInt("max_timeout", -1);
         fStateName = name;
@@ -78,40 +78,39 @@ public class DoneForTimeState implements State {
 
     /**
      * Called every frame
+     * Start a timer with the specified state timeout time when the substate isDone
      */
 
     @Override
     public void update() {
+        //Start a timer when the state is done
+        if (fSubState.isDone()) {
+            if (!fStateTimer.isStarted()) {
+                fStateTimer.start(fStateTimeout);
+            }
 
+        } else if (fStateTimer.isStarted()) {
+            fStateTimer.reset();
+        }
     }
 
     /**
-     * Reset the state timer to clear it for the next time the state is used
+     * Reset the timers to clear them for the next time the state is used
      */
 
     @Override
     public void dispose() {
         sLogger.trace("Leaving Done For Time State {}", fStateName);
         fStateTimer.reset();
+        fMaxTimer.reset();
     }
 
     /**
-     * Start a timer with the specified state timeout time when the state isDone
      * @return true if the state timeout timer or the max timout timer finishes
      */
 
     @Override
     public boolean isDone() {
-        //Start a timer when the state is done
-        if (fSubState.isDone()) {
-            if (!fStateTimer.isStarted()) {
-                fStateTimer.start(fStateTimeout);
-            }
-
-        } else if (fStateTimer.isStarted()) {
-            fStateTimer.reset();
-        }
-
         return fStateTimer.isDone() || fMaxTimer.isDone();
     }
 
@@ -1,12 +1,16 @@
 package org.uacr.models.state;
 
 import org.uacr.models.behavior.Behavior;
+import org.uacr.models.exceptions.ConfigurationException;
 import org.uacr.robot.AbstractModelFactory;
 import org.uacr.shared.abstractions.ObjectsDirectory;
 import org.uacr.utilities.Config;
+import org.uacr.utilities.ConfigSchema;
 import org.uacr.utilities.Sets;
 import org.uacr.utilities.logging.LogManager;
 import org.uacr.utilities.logging.Logger;
+import org.uacr.utilities.profiling.BehaviorProfile;
+import org.uacr.utilities.profiling.BehaviorProfiler;
 
 import javax.annotation.Nullable;
 import java.util.HashMap;
@@ -17,6 +21,7 @@ import java.util.Set;
  * States preform a single action on a single subsystem
  * One implementation is created for each state listed under 'single_state' in the state yaml file
  * Creates one copy of the associated behavior and points all states that use it to the same instance
+ * The behavior config can be swapped while the robot runs, such as when states.yaml is edited, it is used the next time the state is entered
  */
 
 public class SingleState implements State {
@@ -26,10 +31,12 @@ public class SingleState implements State {
     private final AbstractModelFactory fModelFactory;
     private final ObjectsDirectory fSharedObjectsDirectory;
     private final Behavior fBehavior;
-    private final Config fBehaviorConfig;
+    private final BehaviorProfile fBehaviorProfile;
     private final String fStateName;
     private final String fBehaviorName;
 
+    private volatile Config mBehaviorConfig;
+
     /**
      * @param modelFactory so it can create the behavior associated with the state
      * @param name of the state
@@ -44,11 +51,7 @@ public class SingleState implements State {
 
         //Reads in the behavior and behavior config for the state
         fBehaviorName = config.getString("behavior");
-        if (config.contains("behavior_config")) {
-            fBehaviorConfig = config.getSubConfig("behavior_config", "behavior_config");
-        } else {
-            fBehaviorConfig = new Config("behavior_config", new HashMap<>());
-        }
+        mBehaviorConfig = readBehaviorConfig(config);
 
         // Only create a new behavior class instance if it has not already been created by another state
         // A single instance allows all states using this behvavior class to share member variable information inside the single instance
@@ -57,11 +60,61 @@ public class SingleState implements State {
         Behavior behavior = fSharedObjectsDirectory.getBehaviorObject(fBehaviorName);
 
         if (behavior == null) {
-            behavior = fModelFactory.createBehavior(fBehaviorName, fBehaviorConfig);
+            behavior = fModelFactory.createBehavior(fBehaviorName, mBehaviorConfig);
             fSharedObjectsDirectory.setBehaviorObject(fBehaviorName, behavior);
         }
 
         fBehavior = behavior;
+
+        // Compiled now so a missing or mistyped value fails at startup instead of the first time the state is entered
+        try {
+            validateBehaviorConfig(mBehaviorConfig);
+        } catch (ConfigurationException e) {
+            sLogger.error("Invalid behavior_config for state '{}': {}", fStateName, e.getMessage());
+            throw e;
+        }
+
+        fBehaviorProfile = BehaviorProfiler.getProfile(fBehaviorName);
+    }
+
+    /**
+     * @param config for the state
+     * @return the behavior_config of the state, or an empty config if it does not have one
+     */
+    public static Config readBehaviorConfig(Config config) {
+        if (config.contains("behavior_config")) {
+            return config.getSubConfig("behavior_config", "behavior_config");
+        }
+        return new Config("behavior_config", new HashMap<>());
+    }
+
+    /**
+     * Compiles a behavior config with the behavior's schema, the compiled form is kept in the config so using it later costs nothing
+     * @param behaviorConfig the config to check
+     * @throws ConfigurationException if a value is missing or has the wrong type
+     */
+    public void validateBehaviorConfig(Config behaviorConfig) {
+        @Nullable
+        ConfigSchema configSchema = fBehavior.getConfigSchema();
+        if (configSchema != null) {
+            behaviorConfig.compile(configSchema);
+        }
+    }
+
+    /**
+     * Replaces the behavior config, it is passed to the behavior the next time the state is entered
+     * Should be called between frames after the config has been checked with validateBehaviorConfig
+     * @param behaviorConfig the new config
+     */
+    public void setBehaviorConfig(Config behaviorConfig) {
+        mBehaviorConfig = behaviorConfig;
+    }
+
+    /**
+     * @return the name of the behavior used by the state
+     */
+    public String getBehaviorName() {
+        return fBehaviorName;
     }
 
     /**
@@ -79,7 +132,9 @@ public class SingleState implements State {
 
     @Override
     public void initialize() {
-        fBehavior.initialize(fStateName, fBehaviorConfig);
+        long startTime = fBehaviorProfile.start(BehaviorProfiler.Phase.INITIALIZE);
+        fBehavior.initialize(fStateName, mBehaviorConfig);
+        fBehaviorProfile.stop(BehaviorProfiler.Phase.INITIALIZE, startTime);
     }
 
     /**
@@ -88,7 +143,9 @@ public class SingleState implements State {
 
     @Override
     public void update() {
+        long startTime = fBehaviorProfile.start(BehaviorProfiler.Phase.UPDATE);
         fBehavior.update();
+        fBehaviorProfile.stop(BehaviorProfiler.Phase.UPDATE, startTime);
     }
 
     /**
@@ -97,7 +154,9 @@ public class SingleState implements State {
 
     @Override
     public void dispose() {
+        long startTime = fBehaviorProfile.start(BehaviorProfiler.Phase.DISPOSE);
         fBehavior.dispose();
+        fBehaviorProfile.stop(BehaviorProfiler.Phase.DISPOSE, startTime);
     }
 
     /**
@@ -106,7 +165,10 @@ public class SingleState implements State {
 
     @Override
     public boolean isDone() {
-        return fBehavior.isDone();
+        long startTime = fBehaviorProfile.start(BehaviorProfiler.Phase.IS_DONE);
+        boolean isDone = fBehavior.isDone();
+        fBehaviorProfile.stop(BehaviorProfiler.Phase.IS_DONE, startTime);
+        return isDone;
     }
 
     /**
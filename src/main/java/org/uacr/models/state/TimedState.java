@@ -2,8 +2,8 @@ package org.uacr.models.state;
 
 import org.uacr.robot.AbstractModelFactory;
 import org.uacr.utilities.Config;
+import org.uacr.utilities.FrameTimer;
 import org.uacr.utilities.Sets;
-import org.uacr.utilities.Timer;
 import org.uacr.utilities.YamlConfigParser;
 import org.uacr.utilities.logging.LogManager;
 import org.uacr.utilities.logging.Logger;
@@ -19,7 +19,7 @@ public class TimedState implements State {
 
     private static final Logger sLogger = LogManager.getLogger(TimedState.class);
 
-    private final Timer fTimer;
+    private final FrameTimer fTimer;
     private final State fSubState;
     private final int fTimeout;
     private final String fStateName;
@@ -33,7 +33,7 @@ public class TimedState implements State {
      */
 
     public TimedState(AbstractModelFactory modelFactory, String name, YamlConfigParser parser, Config config) {
-        fTimer = new Timer();
+        fTimer = modelFactory.getFrameTimerWheel().createTimer();
         fStateName = name;
         fTimeout = config.getInt("timeout");
         fSubStateName = config.getString("state");
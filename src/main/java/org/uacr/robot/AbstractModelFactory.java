@@ -11,6 +11,7 @@ import org.uacr.models.outputs.numeric.OutputNumeric;
 import org.uacr.models.state.*;
 import org.uacr.shared.abstractions.*;
 import org.uacr.utilities.Config;
+import org.uacr.utilities.FrameTimerWheel;
 import org.uacr.utilities.YamlConfigParser;
 import org.uacr.utilities.injection.Inject;
 import org.uacr.utilities.logging.LogManager;
@@ -31,6 +32,7 @@ public abstract class AbstractModelFactory {
     protected final OutputValues fSharedOutputValues;
     protected final RobotConfiguration fSharedRobotConfiguration;
     protected final ObjectsDirectory fSharedObjectDirectory;
+    protected final FrameTimerWheel fFrameTimerWheel;
     private final List<AbstractModelFactory> fModelFactories;
 
     /**
@@ -46,10 +48,20 @@ public abstract class AbstractModelFactory {
         fSharedOutputValues = outputValues;
         fSharedRobotConfiguration = robotConfiguration;
         fSharedObjectDirectory = objectsDirectory;
+        fFrameTimerWheel = new FrameTimerWheel(inputValues);
 
         fModelFactories = new ArrayList<>();
     }
 
+    /**
+     * The StatesService advances this wheel at the start of every frame
+     * @return the timer wheel used by the timed states created by this model factory
+     */
+
+    public FrameTimerWheel getFrameTimerWheel() {
+        return fFrameTimerWheel;
+    }
+
     /**
      * Creates an Output Numeric (an output that takes a numeric value such as a motor)
      * Loops through all implementations of AbstractModelFactory and tries to create the desired object with each until it finds the correct implementation
@@ -7,15 +7,27 @@ import org.uacr.shared.abstractions.*;
 import org.uacr.shared.concretions.*;
 import org.uacr.utilities.Config;
 import org.uacr.utilities.YamlConfigParser;
+import org.uacr.utilities.YamlConfigWatcher;
+import org.uacr.utilities.logging.AsyncLogWriter;
+import org.uacr.utilities.logging.BinaryLogHandler;
 import org.uacr.utilities.logging.LogManager;
 import org.uacr.utilities.logging.Logger;
+import org.uacr.utilities.logging.RateLimitingLogHandler;
+import org.uacr.utilities.profiling.ConfigAccessProfiler;
 import org.uacr.utilities.services.ScheduledMultiService;
 import org.uacr.utilities.services.Scheduler;
 import org.uacr.utilities.services.Service;
+import org.uacr.utilities.services.StartUpReport;
 import org.uacr.utilities.services.managers.AsyncServiceManager;
 import org.uacr.utilities.services.managers.ServiceManager;
 
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public abstract class RobotCore {
 
@@ -31,6 +43,12 @@ public abstract class RobotCore {
     protected final AbstractStateControls fStateControls;
     protected final ServiceManager fServiceManager;
     protected final AbstractModelFactory fModelFactory;
+    protected final StatesService fStatesService;
+
+    @Nullable
+    private final RateLimitingLogHandler fRateLimitingLogHandler;
+    @Nullable
+    private final BinaryLogHandler fBinaryLogHandler;
 
     protected RobotCore() {
         YamlConfigParser parser = new YamlConfigParser();
@@ -40,19 +58,79 @@ public abstract class RobotCore {
         if (loggerConfig.contains("log_level")) {
             LogManager.setLogLevel(loggerConfig.getEnum("log_level", LogManager.Level.class));
         }
+        if (loggerConfig.contains("levels")) {
+            // Per logger prefix overrides, such as StateMachine: TRACE
+            Config levelsConfig = loggerConfig.getSubConfig("levels", "levels");
+            for (String prefix : levelsConfig.getData().keySet()) {
+                LogManager.setLogLevel(prefix, levelsConfig.getEnum(prefix, LogManager.Level.class));
+            }
+        }
+        RateLimitingLogHandler rateLimitingLogHandler = null;
+        if (loggerConfig.contains("rate_limit_ms")) {
+            // Collapses repeated console messages such as frame time warnings into "repeated N times" summaries
+            rateLimitingLogHandler = new RateLimitingLogHandler(LogManager.getDefaultLogHandler(), loggerConfig.getInt("rate_limit_ms"));
+            if (loggerConfig.contains("rate_limit_prefixes")) {
+                Config prefixesConfig = loggerConfig.getSubConfig("rate_limit_prefixes", "rate_limit_prefixes");
+                for (String prefix : prefixesConfig.getData().keySet()) {
+                    rateLimitingLogHandler.setWindow(prefix, prefixesConfig.getInt(prefix));
+                }
+            }
+            LogManager.setDefaultLogHandler(rateLimitingLogHandler);
+
+            // Writes the summary of a message that stopped repeating even if nothing else is logged after it
+            long flushPeriod = Math.max(loggerConfig.getInt("rate_limit_ms"), 100);
+            ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "RateLimitingLogHandler Flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flushExecutor.scheduleAtFixedRate(rateLimitingLogHandler::flushEndedWindows, flushPeriod, flushPeriod, TimeUnit.MILLISECONDS);
+        }
+        fRateLimitingLogHandler = rateLimitingLogHandler;
+        BinaryLogHandler binaryLogHandler = null;
+        if (loggerConfig.contains("binary_log_file")) {
+            try {
+                binaryLogHandler = new BinaryLogHandler(loggerConfig.getString("binary_log_file"));
+                LogManager.addLogHandler(binaryLogHandler);
+            } catch (IOException e) {
+                sLogger.error("Cannot open binary log file: {}", e);
+            }
+        }
+        fBinaryLogHandler = binaryLogHandler;
+        if (loggerConfig.getBoolean("async", false)) {
+            LogManager.startAsync(loggerConfig.getInt("async_buffer_size", 4096),
+                    loggerConfig.getEnum("async_drop_policy", AsyncLogWriter.DropPolicy.class, AsyncLogWriter.DropPolicy.DROP_NEWEST));
+        }
+        // The robot program is killed rather than stopped, so the log handlers are finished by a shutdown hook
+        Runtime.getRuntime().addShutdownHook(new Thread(this::closeLogHandlers, "RobotCore Log Shutdown"));
+
+        Config robotConfig = parser.getConfig("robot");
+        boolean parallelStartUp = robotConfig.getBoolean("parallel_startup", false);
+        // Turned on before any config is read so every read is recorded, the report is logged when the robot is disabled
+        ConfigAccessProfiler.setEnabled(robotConfig.getBoolean("config_access_profiling", false));
+        if (robotConfig.contains("config_watch_directory")) {
+            // Lets closed loop profiles and behavior configs be tuned by editing the yaml files in this directory while the robot runs
+            try {
+                YamlConfigWatcher.start(Paths.get(robotConfig.getString("config_watch_directory")));
+            } catch (IOException e) {
+                sLogger.error("Cannot watch config directory: {}", e);
+            }
+        }
 
         fFms = new SharedFMS();
-        fRobotConfiguration = new SharedRobotConfiguration();
+        RobotConfiguration robotConfiguration = StartUpReport.time("SharedRobotConfiguration", SharedRobotConfiguration::new);
+        fRobotConfiguration = ConfigAccessProfiler.isEnabled() ? new ProfiledRobotConfiguration(robotConfiguration) : robotConfiguration;
         fInputValues = new SharedInputValues();
         fOutputValues = new SharedOutputValues();
         fHardwareFactory = new SharedHardwareFactory();
         fEventBus = new SharedEventBus();
         fObjectsDirectory = new SharedObjectsDirectory();
-        fStateControls = createStateControls();
+        fStateControls = StartUpReport.time("StateControls", this::createStateControls);
 
-        fModelFactory = createModelFactory();
+        fModelFactory = StartUpReport.time("ModelFactory", this::createModelFactory);
 
-        StatesService statesService = new StatesService(fModelFactory, fInputValues, fFms, fRobotConfiguration,
+        // Stored so info services such as dashboards can read the active states without parsing the "active states" string
+        fStatesService = new StatesService(fModelFactory, fInputValues, fFms, fRobotConfiguration,
                 fObjectsDirectory, fStateControls);
 
         InputService inputService = new InputService(fModelFactory, fInputValues, fRobotConfiguration,
@@ -61,9 +139,18 @@ public abstract class RobotCore {
         OutputService outputService = new OutputService(fModelFactory, fFms, fInputValues,
                 fOutputValues, fRobotConfiguration, fObjectsDirectory);
 
-        fServiceManager = new AsyncServiceManager(
-                new ScheduledMultiService(new Scheduler(3), inputService, statesService, outputService),
-                new ScheduledMultiService(new Scheduler(30), createInfoServices()));
+        ScheduledMultiService robotServices = new ScheduledMultiService(new Scheduler(3), inputService, fStatesService, outputService);
+        ScheduledMultiService infoServices = new ScheduledMultiService(new Scheduler(30), StartUpReport.time("InfoServices", this::createInfoServices));
+
+        // Behaviors can look up input and output objects when the states are created
+        robotServices.addStartUpDependency(fStatesService, inputService);
+        robotServices.addStartUpDependency(fStatesService, outputService);
+        robotServices.setParallelStartUp(parallelStartUp);
+        infoServices.setParallelStartUp(parallelStartUp);
+
+        AsyncServiceManager serviceManager = new AsyncServiceManager(robotServices, infoServices);
+        serviceManager.setParallelStartUp(parallelStartUp);
+        fServiceManager = serviceManager;
     }
 
     protected abstract AbstractStateControls createStateControls();
@@ -76,10 +163,32 @@ public abstract class RobotCore {
         sLogger.info("Starting services");
         fServiceManager.start();
         fServiceManager.awaitHealthy();
+        StartUpReport.log();
         sLogger.info("********************* ALL SERVICES STARTED *******************************");
     }
 
     public FMS getFms() {
         return fFms;
     }
+
+    /**
+     * Writes the messages still waiting in async mode and the repeated message summaries,
+     * and closes the binary log so it is flushed to disk and its unused end is trimmed
+     */
+    private void closeLogHandlers() {
+        LogManager.flush();
+
+        if (fRateLimitingLogHandler != null) {
+            fRateLimitingLogHandler.flush();
+        }
+
+        if (fBinaryLogHandler != null) {
+            LogManager.removeLogHandler(fBinaryLogHandler);
+            try {
+                fBinaryLogHandler.close();
+            } catch (IOException e) {
+                sLogger.error("Cannot close binary log file: {}", e);
+            }
+        }
+    }
 }
@@ -0,0 +1,18 @@
+package org.uacr.services.states;
+
+import java.util.List;
+
+/**
+ * Notified by the StateMachine whenever the set of active states changes
+ */
+
+public interface ActiveStatesListener {
+
+    /**
+     * Called on the states thread on the frame the active states change
+     *
+     * @param version      increments every time the active states change
+     * @param activeStates the names of the states active this frame, in the order they were arbitrated
+     */
+    void onActiveStatesChanged(long version, List<String> activeStates);
+}
@@ -0,0 +1,220 @@
+package org.uacr.services.states;
+
+import org.uacr.models.state.SingleState;
+import org.uacr.models.state.State;
+import org.uacr.utilities.logging.LogManager;
+import org.uacr.utilities.logging.Logger;
+import org.uacr.utilities.profiling.ConfigAccessProfiler;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Updates the active states of a frame using a pool of worker threads
+ * A SingleState is only updated on a worker thread when none of its subsystems are shared with another active single state,
+ * every other state is updated on the calling thread
+ * The states updated on the calling thread, including containers, run first and the worker updates start after them,
+ * so a worker never updates a state while the calling thread is reading it
+ * All updates are joined before update returns so the OutputService always sees the results of the whole frame
+ */
+
+public class ParallelStateUpdater {
+
+    private static final Logger sLogger = LogManager.getLogger(ParallelStateUpdater.class);
+
+    private final ExecutorService fExecutor;
+    private final Map<String, Integer> fSubsystemUseCounts;
+    private final List<State> fParallelStates;
+    private final List<State> fSerialStates;
+    private final List<Future<?>> fFutures;
+    private final Map<String, UpdateTiming> fUpdateTimings;
+
+    /**
+     * @param threads the number of worker threads used to update independent states
+     */
+    public ParallelStateUpdater(int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        fExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "StateMachine Update " + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        fSubsystemUseCounts = new HashMap<>();
+        fParallelStates = new ArrayList<>();
+        fSerialStates = new ArrayList<>();
+        fFutures = new ArrayList<>();
+        fUpdateTimings = new ConcurrentHashMap<>();
+
+        sLogger.debug("Updating independent states with {} threads", threads);
+    }
+
+    /**
+     * Calls update on every active state, fanning out the subsystem disjoint single states to the worker threads
+     *
+     * @param activeStates the states active this frame
+     */
+    public void update(Set<State> activeStates) {
+        partition(activeStates);
+
+        try {
+            // Containers such as a SequencerState read isDone of their children, so the serial states finish before any child runs on a worker
+            for (State state : fSerialStates) {
+                timedUpdate(state, false);
+            }
+
+            // Reads on the workers are counted as in frame reads when the calling thread is in runOneIteration
+            boolean inFrame = ConfigAccessProfiler.isInFrame();
+            for (State state : fParallelStates) {
+                fFutures.add(fExecutor.submit(() -> workerUpdate(state, inFrame)));
+            }
+        } finally {
+            joinUpdates();
+
+            fParallelStates.clear();
+            fSerialStates.clear();
+        }
+    }
+
+    /**
+     * @return a snapshot of the last and max update time in milliseconds of each state that has been updated, and whether it ran in parallel
+     */
+    public Map<String, String> getUpdateTimes() {
+        Map<String, String> updateTimes = new TreeMap<>();
+        for (Map.Entry<String, UpdateTiming> timing : fUpdateTimings.entrySet()) {
+            updateTimes.put(timing.getKey(), timing.getValue().toString());
+        }
+        return updateTimes;
+    }
+
+    /**
+     * Stops the worker threads
+     */
+    public void shutDown() {
+        fExecutor.shutdownNow();
+    }
+
+    /**
+     * Sorts the active states into states that can be updated on a worker thread and states that must be updated on the calling thread
+     *
+     * @param activeStates the states active this frame
+     */
+    private void partition(Set<State> activeStates) {
+        // Container states such as a ParallelState report the subsystems of their children, which are active states themselves,
+        // so only single states are counted or every child would look shared
+        fSubsystemUseCounts.clear();
+        for (State state : activeStates) {
+            if (!(state instanceof SingleState)) {
+                continue;
+            }
+            for (String subsystem : state.getSubsystems()) {
+                fSubsystemUseCounts.merge(subsystem, 1, Integer::sum);
+            }
+        }
+
+        for (State state : activeStates) {
+            if (state instanceof SingleState && hasOnlyUnsharedSubsystems(state)) {
+                fParallelStates.add(state);
+            } else {
+                fSerialStates.add(state);
+            }
+        }
+    }
+
+    /**
+     * @param state the state to check
+     * @return true if no other active single state uses any of the subsystems of this state
+     */
+    private boolean hasOnlyUnsharedSubsystems(State state) {
+        for (String subsystem : state.getSubsystems()) {
+            if (fSubsystemUseCounts.get(subsystem) > 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Waits for every update submitted this frame to finish
+     * Rethrows the first failure so it reaches the service manager like a failure on the states thread would
+     */
+    private void joinUpdates() {
+        RuntimeException failure = null;
+
+        for (Future<?> future : fFutures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (failure == null) {
+                    failure = new RuntimeException("Interrupted while waiting for state updates", e);
+                }
+            }
+        }
+
+        fFutures.clear();
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Updates a state on a worker thread, marking the worker as in a frame for the config access profiler if the calling thread was
+     */
+    private void workerUpdate(State state, boolean inFrame) {
+        if (!inFrame) {
+            timedUpdate(state, true);
+            return;
+        }
+
+        ConfigAccessProfiler.enterFrame();
+        try {
+            timedUpdate(state, true);
+        } finally {
+            ConfigAccessProfiler.exitFrame();
+        }
+    }
+
+    /**
+     * Updates a state and records how long the update took
+     *
+     * @param state    the state to update
+     * @param parallel whether the update is running on a worker thread
+     */
+    private void timedUpdate(State state, boolean parallel) {
+        long startTime = System.nanoTime();
+
+        state.update();
+
+        fUpdateTimings.computeIfAbsent(state.getName(), name -> new UpdateTiming()).record(System.nanoTime() - startTime, parallel);
+    }
+
+    /**
+     * The update time of a single state
+     */
+    private static class UpdateTiming {
+
+        private volatile long mLastNanos;
+        private volatile long mMaxNanos;
+        private volatile boolean mParallel;
+
+        private void record(long nanos, boolean parallel) {
+            mLastNanos = nanos;
+            mParallel = parallel;
+            if (nanos > mMaxNanos) {
+                mMaxNanos = nanos;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("last %.3f ms, max %.3f ms, %s", mLastNanos / 1000000.0, mMaxNanos / 1000000.0, mParallel ? "parallel" : "serial");
+        }
+    }
+}
@@ -8,8 +8,12 @@ import org.uacr.shared.abstractions.ObjectsDirectory;
 import org.uacr.shared.abstractions.RobotConfiguration;
 import org.uacr.utilities.logging.LogManager;
 import org.uacr.utilities.logging.Logger;
+import org.uacr.utilities.profiling.BehaviorProfile;
+import org.uacr.utilities.profiling.BehaviorProfiler;
 
+import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Determines the life cycles of states and the priority of states who want to become active
@@ -30,9 +34,19 @@ public class StateMachine {
     private final Map<String, Set<String>> fAllStateNamesWithPriority;
     private final Set<String> fDoNotInterruptStateNames;
     private final Set<String> fDefaultStateNames;
+    private final List<State> fPublishedActiveStates;
+    private final List<ActiveStatesListener> fActiveStatesListeners;
+    @Nullable
+    private final ParallelStateUpdater fParallelStateUpdater;
+    private final BehaviorProfile fProfile;
+    @Nullable
+    private final StateTransitionRecorder fTransitionRecorder;
+    private final Map<String, State> fSubsystemOwners;
 
     private Set<State> fPrimaryActiveStates;
     private Set<State> fActiveStates;
+    private volatile List<String> mActiveStateNames;
+    private volatile long mActiveStatesVersion;
 
     public StateMachine(ObjectsDirectory objectsDirectory, RobotManager robotManager, RobotConfiguration robotConfiguration, InputValues inputValues) {
         fSharedInputValues = inputValues;
@@ -66,8 +80,56 @@ public class StateMachine {
 
         Collections.reverse(fPriorityKeys);
 
+        fPublishedActiveStates = new ArrayList<>();
+        fActiveStatesListeners = new CopyOnWriteArrayList<>();
+
         fPrimaryActiveStates = new LinkedHashSet<>();
         fActiveStates = new LinkedHashSet<>();
+        mActiveStateNames = Collections.emptyList();
+        mActiveStatesVersion = 0;
+        // Matches the empty published active states, so the value is set even if no state is ever active
+        fSharedInputValues.setString("active states", mActiveStateNames.toString());
+
+        // Parallel updates are opt-in with 'parallel_updates: true' under 'state_machine' in robot-configuration.yaml
+        if (getStateMachineBoolean("parallel_updates")) {
+            int threads = Runtime.getRuntime().availableProcessors();
+            if (fRobotConfiguration.contains("state_machine", "parallel_update_threads")) {
+                threads = fRobotConfiguration.getInt("state_machine", "parallel_update_threads");
+            }
+            fParallelStateUpdater = new ParallelStateUpdater(threads);
+        } else {
+            fParallelStateUpdater = null;
+        }
+
+        // Behavior profiling is set with 'behavior_profiling: off, sampled or full' under 'state_machine' in robot-configuration.yaml
+        // Yaml reads an unquoted off or on as a boolean, so false is treated as off and true as full
+        if (!fRobotConfiguration.categoryIsEmpty("state_machine")) {
+            if (fRobotConfiguration.contains("state_machine", "behavior_profiling")) {
+                Object behaviorProfiling = fRobotConfiguration.get("state_machine", "behavior_profiling");
+                if (behaviorProfiling instanceof Boolean) {
+                    BehaviorProfiler.setMode((Boolean) behaviorProfiling ? BehaviorProfiler.Mode.FULL : BehaviorProfiler.Mode.OFF);
+                } else {
+                    BehaviorProfiler.setMode(fRobotConfiguration.getEnum("state_machine", "behavior_profiling", BehaviorProfiler.Mode.class));
+                }
+            }
+            if (fRobotConfiguration.contains("state_machine", "behavior_profiling_sample_rate")) {
+                BehaviorProfiler.setSampleRate(fRobotConfiguration.getInt("state_machine", "behavior_profiling_sample_rate"));
+            }
+        }
+        fProfile = BehaviorProfiler.getProfile("StateMachine");
+
+        // Transitions are recorded when 'transition_recorder_size' is specified under 'state_machine' in robot-configuration.yaml
+        fSubsystemOwners = new HashMap<>();
+        if (!fRobotConfiguration.categoryIsEmpty("state_machine") && fRobotConfiguration.contains("state_machine", "transition_recorder_size")) {
+            List<String> priorityNames = new ArrayList<>();
+            priorityNames.add("do_not_interrupt");
+            priorityNames.addAll(fPriorityKeys);
+            priorityNames.add("default");
+
+            fTransitionRecorder = new StateTransitionRecorder(fRobotConfiguration.getInt("state_machine", "transition_recorder_size"), fAllSubsystemNames, priorityNames);
+        } else {
+            fTransitionRecorder = null;
+        }
     }
 
     public void initialize() {
@@ -79,21 +141,37 @@ public class StateMachine {
      */
     public void update() {
 
+        if (fTransitionRecorder != null) {
+            fTransitionRecorder.recordFrame();
+        }
+
         // Get a list of states that will be active in this frame
+        long startTime = fProfile.start(BehaviorProfiler.Phase.ARBITRATE);
         Set<State> nextActiveStates = getNextActiveStates();
+        fProfile.stop(BehaviorProfiler.Phase.ARBITRATE, startTime);
 
         // Dispose of the states that became inactive in this frame
+        startTime = fProfile.start(BehaviorProfiler.Phase.DISPOSE);
         disposeInactiveStates(nextActiveStates);
+        fProfile.stop(BehaviorProfiler.Phase.DISPOSE, startTime);
 
         // Initialize states that became active in this frame
+        startTime = fProfile.start(BehaviorProfiler.Phase.INITIALIZE);
         initializeNewlyActiveStates(nextActiveStates);
+        fProfile.stop(BehaviorProfiler.Phase.INITIALIZE, startTime);
 
         fActiveStates = nextActiveStates;
 
         // Update all active states
-        for (State state : fActiveStates) {
-            state.update();
+        startTime = fProfile.start(BehaviorProfiler.Phase.UPDATE);
+        if (fParallelStateUpdater != null) {
+            fParallelStateUpdater.update(fActiveStates);
+        } else {
+            for (State state : fActiveStates) {
+                state.update();
+            }
         }
+        fProfile.stop(BehaviorProfiler.Phase.UPDATE, startTime);
     }
 
     /**
@@ -104,6 +182,9 @@ public class StateMachine {
 
         // Dispose all active states
         for (State state : fActiveStates) {
+            if (fTransitionRecorder != null) {
+                fTransitionRecorder.recordDispose(state);
+            }
             state.dispose();
         }
 
@@ -111,6 +192,16 @@ public class StateMachine {
         fPrimaryActiveStates.clear();
     }
 
+    /**
+     * Called when the StatesService shuts down
+     * Stops the parallel update threads if they are being used
+     */
+    public void shutDown() {
+        if (fParallelStateUpdater != null) {
+            fParallelStateUpdater.shutDown();
+        }
+    }
+
     /**
      * Get all a list of all states grouped by priority level
      * Compile a list of the states that will be active this frame based on order of priority,
@@ -131,6 +222,7 @@ public class StateMachine {
         Set<State> nextActiveStates = new LinkedHashSet<>();
         Set<State> primaryNextActiveStates = new LinkedHashSet<>();
         Set<String> subsystems = new LinkedHashSet<>(fAllSubsystemNames);
+        fSubsystemOwners.clear();
 
         // Loop through all the do not interrupt states
         for (String doNotInterruptStateName : fDoNotInterruptStateNames) {
@@ -153,7 +245,7 @@ public class StateMachine {
             }
 
             // If the state is currently active and can not be interrupted, then add it to a list that will be given first priority
-            if (isCurrentlyActive && !isDone && isSubsystemAvailable(doNotInterruptState, subsystems)) {
+            if (isCurrentlyActive && !isDone && claimSubsystems(doNotInterruptState, subsystems, "do_not_interrupt")) {
                 primaryNextActiveStates.add(doNotInterruptState);
             }
         }
@@ -191,7 +283,7 @@ public class StateMachine {
                 }
 
                 // Each state takes the subsystem(s) it requires in order of the priority above. Once the subsystem is taken, all lower priority states have to wait until the subsystem(s) it requires becomes available.
-                if (!isCurrentlyActive && isReady && isSubsystemAvailable(stateInPriority, subsystems)) {
+                if (!isCurrentlyActive && isReady && claimSubsystems(stateInPriority, subsystems, priority)) {
                     // If primary a state is not active and is ready and its subsystem(s) are available then add it to the set of primary active states
                     primaryNextActiveStates.add(stateInPriority);
                 } else if (isCurrentlyActive && !isDone) {
@@ -203,7 +295,7 @@ public class StateMachine {
             // For all states that are currently active, not done, and have their subsystem(s) available at this priority level add them to the set of primary active states
             // This needs to be done here so every non active state at this priority level has a chance to interrupt
             for (State activeStateThatIsReady : currentlyActiveStatesThatAreReady) {
-                if (isSubsystemAvailable(activeStateThatIsReady, subsystems)) {
+                if (claimSubsystems(activeStateThatIsReady, subsystems, priority)) {
                     primaryNextActiveStates.add(activeStateThatIsReady);
                 }
             }
@@ -221,7 +313,7 @@ public class StateMachine {
             State defaultState = fSharedObjectsDirectory.getStateObject(defaultStateName);
 
             // If the default state's subsystem(s) are available add it to the set of primary active states
-            if (isSubsystemAvailable(defaultState, subsystems)) {
+            if (claimSubsystems(defaultState, subsystems, "default")) {
                 primaryNextActiveStates.add(defaultState);
             }
         }
@@ -258,13 +350,94 @@ public class StateMachine {
         fPrimaryActiveStates = primaryNextActiveStates;
 
         // Store a list of currently active states in the SharedInputValues so it can be displayed on the web dashboard for debugging
-        String activeStatesList = nextActiveStates.toString();
-
-        fSharedInputValues.setString("active states", activeStatesList);
+        // The string is only rebuilt on frames where the active states actually change
+        if (haveActiveStatesChanged(nextActiveStates)) {
+            publishActiveStates(nextActiveStates);
+        }
 
         return nextActiveStates;
     }
 
+    /**
+     * Compares the states that will be active this frame against the last published active states, including their order
+     *
+     * @param nextActiveStates the states that will be active this frame
+     * @return whether the active states are different from the ones last published
+     */
+    private boolean haveActiveStatesChanged(Set<State> nextActiveStates) {
+        if (nextActiveStates.size() != fPublishedActiveStates.size()) {
+            return true;
+        }
+
+        int index = 0;
+        for (State state : nextActiveStates) {
+            if (fPublishedActiveStates.get(index) != state) {
+                return true;
+            }
+            index++;
+        }
+
+        return false;
+    }
+
+    /**
+     * Stores a new snapshot of the active states, writes it to the SharedInputValues and notifies any listeners
+     *
+     * @param nextActiveStates the states that will be active this frame
+     */
+    private void publishActiveStates(Set<State> nextActiveStates) {
+        fPublishedActiveStates.clear();
+        fPublishedActiveStates.addAll(nextActiveStates);
+
+        List<String> activeStateNames = new ArrayList<>(nextActiveStates.size());
+        for (State state : nextActiveStates) {
+            activeStateNames.add(state.getName());
+        }
+
+        mActiveStateNames = Collections.unmodifiableList(activeStateNames);
+        mActiveStatesVersion++;
+
+        fSharedInputValues.setString("active states", activeStateNames.toString());
+
+        for (ActiveStatesListener listener : fActiveStatesListeners) {
+            listener.onActiveStatesChanged(mActiveStatesVersion, mActiveStateNames);
+        }
+    }
+
+    /**
+     * Used while choosing primary states, works the same as isSubsystemAvailable but also records the outcome when the transition recorder is on
+     *
+     * @param state      the primary state candidate that is requesting its subsystems
+     * @param subsystems the list of subsystems to check
+     * @param priority   the priority level the state is a candidate at
+     * @return whether the requested subsystems are available
+     */
+    private boolean claimSubsystems(State state, Set<String> subsystems, String priority) {
+        boolean available = isSubsystemAvailable(state, subsystems);
+
+        if (fTransitionRecorder == null) {
+            return available;
+        }
+
+        if (available) {
+            for (String subsystemName : state.getSubsystems()) {
+                fSubsystemOwners.put(subsystemName, state);
+            }
+            if (!fPrimaryActiveStates.contains(state)) {
+                fTransitionRecorder.recordSelected(state, priority);
+            }
+        } else {
+            for (String subsystemName : state.getSubsystems()) {
+                if (!subsystems.contains(subsystemName)) {
+                    fTransitionRecorder.recordBlocked(state, priority, subsystemName, fSubsystemOwners.get(subsystemName));
+                    break;
+                }
+            }
+        }
+
+        return available;
+    }
+
     /**
      * Tracks the available subsystems
      * If the subsystem requested by the state is available, removes the subsystem from the list of available subsystems
@@ -307,6 +480,9 @@ public class StateMachine {
             boolean isInNext = nextActiveStates.contains(state);
 
             if (isInNext && !isInCurrent) {
+                if (fTransitionRecorder != null) {
+                    fTransitionRecorder.recordInitialize(state);
+                }
                 state.initialize();
             }
         }
@@ -325,16 +501,84 @@ public class StateMachine {
             boolean isInNext = nextActiveStates.contains(state);
 
             if (isInCurrent && !isInNext) {
+                if (fTransitionRecorder != null) {
+                    fTransitionRecorder.recordDispose(state);
+                }
                 state.dispose();
             }
         }
     }
 
 
+    /**
+     * Writes the recorded transitions to a file on a background thread, does nothing if the transition recorder is off
+     *
+     * @param path the file to write
+     */
+    public void flushTransitionRecorder(String path) {
+        if (fTransitionRecorder != null) {
+            fTransitionRecorder.flush(path);
+        }
+    }
+
+    /**
+     * Reads an optional boolean from the 'state_machine' category in robot-configuration.yaml
+     *
+     * @param key the key of the value
+     * @return the value, or false if the category or key is not specified
+     */
+    private boolean getStateMachineBoolean(String key) {
+        return !fRobotConfiguration.categoryIsEmpty("state_machine") && fRobotConfiguration.contains("state_machine", key) && fRobotConfiguration.getBoolean("state_machine", key);
+    }
+
+    /**
+     * Only populated when parallel updates are enabled
+     *
+     * @return the last and max update time of each state that has been updated
+     */
+    public Map<String, String> getUpdateTimes() {
+        if (fParallelStateUpdater == null) {
+            return Collections.emptyMap();
+        }
+        return fParallelStateUpdater.getUpdateTimes();
+    }
+
     /**
      * @return the list of states that are active this frame
      */
     public Set<State> getCurrentActiveStates() {
         return fActiveStates;
     }
+
+    /**
+     * Safe to call from any thread, the returned list is never modified after it is published
+     *
+     * @return an immutable snapshot of the names of the states that were last published as active
+     */
+    public List<String> getActiveStates() {
+        return mActiveStateNames;
+    }
+
+    /**
+     * @return a number that increments every time the active states change
+     */
+    public long getActiveStatesVersion() {
+        return mActiveStatesVersion;
+    }
+
+    /**
+     * Registers a listener to be notified on the states thread whenever the active states change
+     *
+     * @param listener the listener to add
+     */
+    public void addActiveStatesListener(ActiveStatesListener listener) {
+        fActiveStatesListeners.add(listener);
+    }
+
+    /**
+     * @param listener the listener to remove
+     */
+    public void removeActiveStatesListener(ActiveStatesListener listener) {
+        fActiveStatesListeners.remove(listener);
+    }
 }
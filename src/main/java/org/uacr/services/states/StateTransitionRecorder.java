@@ -0,0 +1,299 @@
+package org.uacr.services.states;
+
+import org.uacr.models.state.State;
+import org.uacr.utilities.logging.LogManager;
+import org.uacr.utilities.logging.Logger;
+
+import javax.annotation.Nullable;
+import java.io.*;
+import java.util.*;
+
+/**
+ * Records state machine transitions into a preallocated ring buffer so arbitration can be debugged after a match
+ * Every record is two longs, the System.nanoTime() it was recorded and a packed event:
+ * <p>
+ * bits 56-63 event type, bits 48-55 priority id, bits 32-47 state id, bits 16-31 other state id, bits 0-15 subsystem id
+ * <p>
+ * A frame record is only written before the first event of a frame, with the frame number in bits 0-55, so idle frames take no space
+ * <p>
+ * State, subsystem and priority names are stored once in the header of the flushed file
+ * Recording never allocates once every state has been seen, so it can stay on in the 3 ms loop
+ */
+
+public class StateTransitionRecorder {
+
+    private static final Logger sLogger = LogManager.getLogger(StateTransitionRecorder.class);
+
+    public static final int FILE_MAGIC = 0x55535452;
+    public static final int FILE_VERSION = 2;
+    public static final int NO_ID = 0xFFFF;
+
+    private static final long FRAME_MASK = (1L << 56) - 1;
+
+    private final long[] fRecords;
+    private final int fMask;
+    private final Map<State, Integer> fStateIds;
+    private final List<String> fStateNames;
+    private final Map<String, Integer> fSubsystemIds;
+    private final List<String> fSubsystemNames;
+    private final Map<String, Integer> fPriorityIds;
+    private final List<String> fPriorityNames;
+
+    private long[] mLastBlockedFrame;
+    private long mRecordCount;
+    private long mFrame;
+    private long mMarkedFrame;
+
+    /**
+     * @param capacity       the number of records to keep, rounded up to a power of two
+     * @param subsystemNames the names of all the subsystems
+     * @param priorityNames  the names of all the priority levels
+     */
+    public StateTransitionRecorder(int capacity, Collection<String> subsystemNames, Collection<String> priorityNames) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        fRecords = new long[size * 2];
+        fMask = size - 1;
+
+        fStateIds = new IdentityHashMap<>();
+        fStateNames = new ArrayList<>();
+
+        fSubsystemIds = new HashMap<>();
+        fSubsystemNames = new ArrayList<>(subsystemNames);
+        for (int s = 0; s < fSubsystemNames.size(); s++) {
+            fSubsystemIds.put(fSubsystemNames.get(s), s);
+        }
+
+        fPriorityIds = new HashMap<>();
+        fPriorityNames = new ArrayList<>(priorityNames);
+        for (int p = 0; p < fPriorityNames.size(); p++) {
+            fPriorityIds.put(fPriorityNames.get(p), p);
+        }
+
+        mLastBlockedFrame = new long[64];
+        Arrays.fill(mLastBlockedFrame, Long.MIN_VALUE);
+        mRecordCount = 0;
+        mFrame = 0;
+        mMarkedFrame = -1;
+    }
+
+    /**
+     * Marks the start of a new state machine frame, nothing is written unless something is recorded during the frame
+     */
+    public void recordFrame() {
+        mFrame++;
+    }
+
+    /**
+     * @param state the state being initialized
+     */
+    public void recordInitialize(State state) {
+        record(Event.INITIALIZE, NO_ID, getStateId(state), NO_ID, NO_ID);
+    }
+
+    /**
+     * @param state the state being disposed
+     */
+    public void recordDispose(State state) {
+        record(Event.DISPOSE, NO_ID, getStateId(state), NO_ID, NO_ID);
+    }
+
+    /**
+     * @param state    the primary state that claimed its subsystems
+     * @param priority the priority level it won at
+     */
+    public void recordSelected(State state, String priority) {
+        record(Event.SELECTED, getPriorityId(priority), getStateId(state), NO_ID, NO_ID);
+    }
+
+    /**
+     * Only the first frame of a continuous block is recorded so candidates that wait for many frames do not fill the buffer
+     *
+     * @param state     the candidate that could not claim its subsystems
+     * @param priority  the priority level it was a candidate at
+     * @param subsystem the first subsystem that was not available
+     * @param owner     the state that claimed the subsystem this frame, null if it was not claimed by a primary state
+     */
+    public void recordBlocked(State state, String priority, String subsystem, @Nullable State owner) {
+        int stateId = getStateId(state);
+        boolean blockedLastFrame = mLastBlockedFrame[stateId] == mFrame - 1 || mLastBlockedFrame[stateId] == mFrame;
+        mLastBlockedFrame[stateId] = mFrame;
+
+        if (!blockedLastFrame) {
+            record(Event.BLOCKED, getPriorityId(priority), stateId, owner != null ? getStateId(owner) : NO_ID, fSubsystemIds.getOrDefault(subsystem, NO_ID));
+        }
+    }
+
+    /**
+     * @return the number of records written since the recorder was created, including ones that have been overwritten
+     */
+    public long getRecordCount() {
+        return mRecordCount;
+    }
+
+    /**
+     * Copies the buffer on the calling thread and writes it to a file on a background thread
+     *
+     * @param path the file to write
+     */
+    public void flush(String path) {
+        int count = (int) Math.min(mRecordCount, fMask + 1);
+        long[] records = new long[count * 2];
+        for (int r = 0; r < count; r++) {
+            int index = (int) ((mRecordCount - count + r) & fMask);
+            records[r * 2] = fRecords[index * 2];
+            records[r * 2 + 1] = fRecords[index * 2 + 1];
+        }
+
+        List<String> stateNames = new ArrayList<>(fStateNames);
+        List<String> subsystemNames = new ArrayList<>(fSubsystemNames);
+        List<String> priorityNames = new ArrayList<>(fPriorityNames);
+
+        Thread thread = new Thread(() -> {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)))) {
+                output.writeInt(FILE_MAGIC);
+                output.writeInt(FILE_VERSION);
+                writeNames(output, stateNames);
+                writeNames(output, subsystemNames);
+                writeNames(output, priorityNames);
+                output.writeInt(count);
+                for (long value : records) {
+                    output.writeLong(value);
+                }
+                sLogger.debug("Wrote {} state transitions to {}", count, path);
+            } catch (IOException e) {
+                sLogger.error("Failed to write state transitions to {}: {}", path, e);
+            }
+        }, "StateTransitionRecorder Flush");
+        // Not a daemon so a flush started while shutting down still finishes writing
+        thread.start();
+    }
+
+    /**
+     * Prints a flushed transition file as text
+     *
+     * @param args the path of the file to decode
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: StateTransitionRecorder <transitions file>");
+            return;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(args[0])))) {
+            if (input.readInt() != FILE_MAGIC || input.readInt() != FILE_VERSION) {
+                throw new IOException(args[0] + " is not a state transition file");
+            }
+
+            List<String> stateNames = readNames(input);
+            List<String> subsystemNames = readNames(input);
+            List<String> priorityNames = readNames(input);
+            int count = input.readInt();
+
+            long firstTime = 0;
+            for (int r = 0; r < count; r++) {
+                long time = input.readLong();
+                long packed = input.readLong();
+                if (r == 0) {
+                    firstTime = time;
+                }
+
+                Event event = Event.values()[(int) (packed >>> 56)];
+                String priority = getName(priorityNames, (int) (packed >>> 48) & 0xFF);
+                String state = getName(stateNames, (int) (packed >>> 32) & 0xFFFF);
+                String other = getName(stateNames, (int) (packed >>> 16) & 0xFFFF);
+                String subsystem = getName(subsystemNames, (int) packed & 0xFFFF);
+
+                String line = String.format("%12.3f ms %-10s", (time - firstTime) / 1000000.0, event);
+                switch (event) {
+                    case FRAME:
+                        line += " " + (packed & FRAME_MASK);
+                        break;
+                    case INITIALIZE:
+                    case DISPOSE:
+                        line += " " + state;
+                        break;
+                    case SELECTED:
+                        line += " " + state + " at priority " + priority;
+                        break;
+                    case BLOCKED:
+                        line += " " + state + " at priority " + priority + " by " + other + " holding " + subsystem;
+                        break;
+                    default:
+                        break;
+                }
+                System.out.println(line);
+            }
+        }
+    }
+
+    /**
+     * Writes a record into the next slot of the ring buffer, preceded by a frame record if it is the first record of the frame
+     */
+    private void record(Event event, int priorityId, int stateId, int otherId, int subsystemId) {
+        long time = System.nanoTime();
+
+        if (mMarkedFrame != mFrame) {
+            mMarkedFrame = mFrame;
+            write(time, ((long) Event.FRAME.ordinal() << 56) | (mFrame & FRAME_MASK));
+        }
+
+        write(time, ((long) event.ordinal() << 56) | ((long) (priorityId & 0xFF) << 48) | ((long) (stateId & 0xFFFF) << 32) | ((long) (otherId & 0xFFFF) << 16) | (subsystemId & 0xFFFF));
+    }
+
+    private void write(long time, long packed) {
+        int index = (int) (mRecordCount & fMask) * 2;
+        fRecords[index] = time;
+        fRecords[index + 1] = packed;
+        mRecordCount++;
+    }
+
+    /**
+     * Assigns ids to states the first time they are seen
+     */
+    private int getStateId(State state) {
+        Integer id = fStateIds.get(state);
+        if (id == null) {
+            id = fStateNames.size();
+            fStateIds.put(state, id);
+            fStateNames.add(state.getName());
+            if (id >= mLastBlockedFrame.length) {
+                int oldLength = mLastBlockedFrame.length;
+                mLastBlockedFrame = Arrays.copyOf(mLastBlockedFrame, oldLength * 2);
+                Arrays.fill(mLastBlockedFrame, oldLength, mLastBlockedFrame.length, Long.MIN_VALUE);
+            }
+        }
+        return id;
+    }
+
+    private int getPriorityId(String priority) {
+        return fPriorityIds.getOrDefault(priority, 0xFF);
+    }
+
+    private static void writeNames(DataOutputStream output, List<String> names) throws IOException {
+        output.writeInt(names.size());
+        for (String name : names) {
+            output.writeUTF(name);
+        }
+    }
+
+    private static List<String> readNames(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        List<String> names = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            names.add(input.readUTF());
+        }
+        return names;
+    }
+
+    private static String getName(List<String> names, int id) {
+        return id < names.size() ? names.get(id) : "-";
+    }
+
+    public enum Event {
+        FRAME,
+        INITIALIZE,
+        DISPOSE,
+        SELECTED,
+        BLOCKED
+    }
+}
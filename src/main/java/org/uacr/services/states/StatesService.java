@@ -1,5 +1,8 @@
 package org.uacr.services.states;
 
+import org.uacr.models.exceptions.ConfigurationException;
+import org.uacr.models.state.SingleState;
+import org.uacr.models.state.State;
 import org.uacr.robot.AbstractModelFactory;
 import org.uacr.robot.AbstractStateControls;
 import org.uacr.robot.RobotManager;
@@ -8,15 +11,28 @@ import org.uacr.shared.abstractions.InputValues;
 import org.uacr.shared.abstractions.ObjectsDirectory;
 import org.uacr.shared.abstractions.RobotConfiguration;
 import org.uacr.utilities.Config;
+import org.uacr.utilities.ConfigChangeListener;
+import org.uacr.utilities.YamlConfigCache;
 import org.uacr.utilities.YamlConfigParser;
+import org.uacr.utilities.YamlConfigWatcher;
 import org.uacr.utilities.injection.Inject;
 import org.uacr.utilities.logging.LogManager;
 import org.uacr.utilities.logging.Logger;
+import org.uacr.utilities.profiling.BehaviorProfiler;
+import org.uacr.utilities.profiling.ConfigAccessProfiler;
 import org.uacr.utilities.services.ScheduledService;
 import org.uacr.utilities.services.Scheduler;
 
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
 /**
  * Reads the FMS mode sent to us by the field and runs the correct StateControls and StateMachine
+ * When the YamlConfigWatcher is running, edited behavior configs are checked on the watcher thread and swapped in between frames
  */
 
 public class StatesService implements ScheduledService {
@@ -31,9 +47,12 @@ public class StatesService implements ScheduledService {
     private final RobotConfiguration fRobotConfiguration;
     private final StateMachine fStateMachine;
     private final RobotManager fRobotManager;
+    private final Queue<Runnable> fPendingConfigSwaps;
+    private final ConfigChangeListener fStatesListener;
 
     private FMS.Mode mCurrentFmsMode;
     private long mFrameTimeThreshold;
+    private String mTransitionRecorderFile;
 
     /**
      * @param inputValues the map that holds the values from all the inputs
@@ -54,8 +73,12 @@ public class StatesService implements ScheduledService {
         fRobotManager = new RobotManager(fSharedInputValues, fRobotConfiguration, stateControls);
         fStateMachine = new StateMachine(fSharedObjectsDirectory, fRobotManager, fRobotConfiguration, fSharedInputValues);
 
+        fPendingConfigSwaps = new ConcurrentLinkedQueue<>();
+        fStatesListener = this::onStatesChanged;
+
         mCurrentFmsMode = fFms.getMode();
         mFrameTimeThreshold = -1;
+        mTransitionRecorderFile = "";
     }
 
     /**
@@ -68,10 +91,17 @@ public class StatesService implements ScheduledService {
         sLogger.trace("Starting StatesService");
 
         mFrameTimeThreshold = fRobotConfiguration.getInt("global_timing", "frame_time_threshold_state_service");
+        if (!fRobotConfiguration.categoryIsEmpty("state_machine") && fRobotConfiguration.contains("state_machine", "transition_recorder_file")) {
+            mTransitionRecorderFile = fRobotConfiguration.getString("state_machine", "transition_recorder_file");
+        }
 
         fStatesParser.loadWithFolderName("states.yaml");
         createAllStates(fStatesParser);
 
+        if (YamlConfigWatcher.isRunning()) {
+            YamlConfigWatcher.addListener("states.yaml", fStatesParser.getRobotVariation(), fStatesListener);
+        }
+
         fSharedInputValues.setBoolean("ipb_robot_has_been_zeroed", false);
 
         sLogger.trace("StatesService started");
@@ -97,6 +127,11 @@ public class StatesService implements ScheduledService {
 
         double frameStartTime = System.currentTimeMillis();
 
+        applyPendingConfigSwaps();
+
+        // Expire the timers of timed states once for this frame
+        fModelFactory.getFrameTimerWheel().advance();
+
         //Get the FMS mode from the field or webDashboard
         FMS.Mode nextFmsMode = fFms.getMode();
 
@@ -123,6 +158,9 @@ public class StatesService implements ScheduledService {
                     fStateMachine.dispose();
                     fSharedInputValues.setBoolean("ipb_robot_has_been_zeroed", false);
   //              }
+                BehaviorProfiler.logReport();
+                ConfigAccessProfiler.logReport();
+                flushTransitionRecorder();
             }
         }
 
@@ -152,9 +190,72 @@ public class StatesService implements ScheduledService {
 
     @Override
     public void shutDown() throws Exception {
+        YamlConfigWatcher.removeListener("states.yaml", fStatesParser.getRobotVariation(), fStatesListener);
+        fStateMachine.shutDown();
+        BehaviorProfiler.logReport();
+        ConfigAccessProfiler.logReport();
+        flushTransitionRecorder();
+    }
+
+    /**
+     * Writes the state machine transitions to the file specified by 'transition_recorder_file' if there is one
+     */
+
+    private void flushTransitionRecorder() {
+        if (!mTransitionRecorderFile.isEmpty()) {
+            fStateMachine.flushTransitionRecorder(mTransitionRecorderFile);
+        }
+    }
+
 
+    /**
+     * Checks the behavior configs of edited single states on the watcher thread and queues them to be swapped in between frames
+     * Other changes, such as a different behavior or a new state, need a restart
+     * @param config the new data of states.yaml
+     * @param changedNames the states that changed
+     */
+
+    private void onStatesChanged(YamlConfigCache.CachedConfig config, Set<String> changedNames) {
+        for (String stateName : changedNames) {
+            @Nullable
+            State state = fSharedObjectsDirectory.getStateObject(stateName);
+            @Nullable
+            Object data = config.getValue(stateName);
+
+            if (!(state instanceof SingleState) || !(data instanceof Map)) {
+                sLogger.info("Only the behavior_config of existing single states can be reloaded, restart to apply the changes to '{}'", stateName);
+                continue;
+            }
+
+            SingleState singleState = (SingleState) state;
+            Config stateConfig = new Config(config.getNameTypes().get(stateName), (Map) data);
+
+            try {
+                if (!singleState.getBehaviorName().equals(stateConfig.getString("behavior"))) {
+                    sLogger.info("The behavior of '{}' changed, restart to apply it", stateName);
+                    continue;
+                }
+
+                Config behaviorConfig = SingleState.readBehaviorConfig(stateConfig);
+                singleState.validateBehaviorConfig(behaviorConfig);
+
+                fPendingConfigSwaps.add(() -> singleState.setBehaviorConfig(behaviorConfig));
+            } catch (ConfigurationException e) {
+                sLogger.error("Invalid behavior_config for state '{}', keeping the previous config: {}", stateName, e.getMessage());
+            }
+        }
     }
 
+    /**
+     * Swaps in the configs reloaded since the last frame, states that are active use them the next time they are entered
+     */
+
+    private void applyPendingConfigSwaps() {
+        Runnable swap;
+        while ((swap = fPendingConfigSwaps.poll()) != null) {
+            swap.run();
+        }
+    }
 
     /**
      * Loops through all states and calls the method to create them and store them
@@ -178,4 +279,38 @@ public class StatesService implements ScheduledService {
     private void createState(String name, YamlConfigParser statesParser, Config config) {
         fModelFactory.createState(name, statesParser, config);
     }
+
+    /**
+     * Can be called from any thread, such as by a dashboard service
+     * @return an immutable snapshot of the names of the currently active states
+     */
+
+    public List<String> getActiveStates() {
+        return fStateMachine.getActiveStates();
+    }
+
+    /**
+     * @return a number that increments every time the active states change
+     */
+
+    public long getActiveStatesVersion() {
+        return fStateMachine.getActiveStatesVersion();
+    }
+
+    /**
+     * Registers a listener to be notified on the states thread whenever the active states change
+     * @param listener the listener to add
+     */
+
+    public void addActiveStatesListener(ActiveStatesListener listener) {
+        fStateMachine.addActiveStatesListener(listener);
+    }
+
+    /**
+     * @param listener the listener to remove
+     */
+
+    public void removeActiveStatesListener(ActiveStatesListener listener) {
+        fStateMachine.removeActiveStatesListener(listener);
+    }
 }
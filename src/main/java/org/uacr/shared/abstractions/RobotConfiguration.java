@@ -1,5 +1,7 @@
 package org.uacr.shared.abstractions;
 
+import org.uacr.utilities.NameIndex;
+
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -29,6 +31,36 @@ public interface RobotConfiguration {
 
     Set<String> getOutputBooleanNames();
 
+    // Dense ids for the names, implementations should build these once instead of on every call
+
+    default NameIndex getStateIndex() {
+        return new NameIndex(getStateNames());
+    }
+
+    default NameIndex getSubsystemIndex() {
+        return new NameIndex(getSubsystemNames());
+    }
+
+    default NameIndex getInputBooleanIndex() {
+        return new NameIndex(getInputBooleanNames());
+    }
+
+    default NameIndex getInputNumericIndex() {
+        return new NameIndex(getInputNumericNames());
+    }
+
+    default NameIndex getInputVectorIndex() {
+        return new NameIndex(getInputVectorNames());
+    }
+
+    default NameIndex getOutputNumericIndex() {
+        return new NameIndex(getOutputNumericNames());
+    }
+
+    default NameIndex getOutputBooleanIndex() {
+        return new NameIndex(getOutputBooleanNames());
+    }
+
     Object get(String category, String key);
 
     Map<String, Object> getCategory(String category);
@@ -0,0 +1,181 @@
+package org.uacr.shared.concretions;
+
+import org.uacr.shared.abstractions.RobotConfiguration;
+import org.uacr.utilities.NameIndex;
+import org.uacr.utilities.profiling.ConfigAccessProfiler;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Wraps a RobotConfiguration and records every read with the ConfigAccessProfiler
+ * Used by RobotCore instead of the SharedRobotConfiguration while config access profiling is on
+ */
+
+public class ProfiledRobotConfiguration implements RobotConfiguration {
+
+    private static final String SOURCE = "robot_configuration";
+
+    private final RobotConfiguration fRobotConfiguration;
+
+    public ProfiledRobotConfiguration(RobotConfiguration robotConfiguration) {
+        fRobotConfiguration = robotConfiguration;
+    }
+
+    @Deprecated
+    @Override
+    public void initialize() {
+        fRobotConfiguration.initialize();
+    }
+
+    @Override
+    public Map<String, Set<String>> getStateNamesWithPriority() {
+        return profile(SOURCE, "state_names_with_priority", fRobotConfiguration::getStateNamesWithPriority);
+    }
+
+    @Override
+    public Set<String> getStateNames() {
+        return profile(SOURCE, "state_names", fRobotConfiguration::getStateNames);
+    }
+
+    @Override
+    public Set<String> getSubsystemNames() {
+        return profile(SOURCE, "subsystem_names", fRobotConfiguration::getSubsystemNames);
+    }
+
+    @Override
+    public Set<String> getInputBooleanNames() {
+        return profile(SOURCE, "input_boolean_names", fRobotConfiguration::getInputBooleanNames);
+    }
+
+    @Override
+    public Set<String> getInputNumericNames() {
+        return profile(SOURCE, "input_numeric_names", fRobotConfiguration::getInputNumericNames);
+    }
+
+    @Override
+    public Set<String> getInputVectorNames() {
+        return profile(SOURCE, "input_vector_names", fRobotConfiguration::getInputVectorNames);
+    }
+
+    @Override
+    public Set<String> getOutputNumericNames() {
+        return profile(SOURCE, "output_numeric_names", fRobotConfiguration::getOutputNumericNames);
+    }
+
+    @Override
+    public Set<String> getOutputBooleanNames() {
+        return profile(SOURCE, "output_boolean_names", fRobotConfiguration::getOutputBooleanNames);
+    }
+
+    @Override
+    public NameIndex getStateIndex() {
+        return profile(SOURCE, "state_index", fRobotConfiguration::getStateIndex);
+    }
+
+    @Override
+    public NameIndex getSubsystemIndex() {
+        return profile(SOURCE, "subsystem_index", fRobotConfiguration::getSubsystemIndex);
+    }
+
+    @Override
+    public NameIndex getInputBooleanIndex() {
+        return profile(SOURCE, "input_boolean_index", fRobotConfiguration::getInputBooleanIndex);
+    }
+
+    @Override
+    public NameIndex getInputNumericIndex() {
+        return profile(SOURCE, "input_numeric_index", fRobotConfiguration::getInputNumericIndex);
+    }
+
+    @Override
+    public NameIndex getInputVectorIndex() {
+        return profile(SOURCE, "input_vector_index", fRobotConfiguration::getInputVectorIndex);
+    }
+
+    @Override
+    public NameIndex getOutputNumericIndex() {
+        return profile(SOURCE, "output_numeric_index", fRobotConfiguration::getOutputNumericIndex);
+    }
+
+    @Override
+    public NameIndex getOutputBooleanIndex() {
+        return profile(SOURCE, "output_boolean_index", fRobotConfiguration::getOutputBooleanIndex);
+    }
+
+    @Override
+    public Object get(String category, String key) {
+        return profile(category, key, () -> fRobotConfiguration.get(category, key));
+    }
+
+    @Override
+    public Map<String, Object> getCategory(String category) {
+        return profile(SOURCE, category, () -> fRobotConfiguration.getCategory(category));
+    }
+
+    @Override
+    public int getInt(String category, String key) {
+        return profile(category, key, () -> fRobotConfiguration.getInt(category, key));
+    }
+
+    @Override
+    public double getDouble(String category, String key) {
+        return profile(category, key, () -> fRobotConfiguration.getDouble(category, key));
+    }
+
+    @Override
+    public boolean getBoolean(String category, String key) {
+        return profile(category, key, () -> fRobotConfiguration.getBoolean(category, key));
+    }
+
+    @Override
+    public String getString(String category, String key) {
+        return profile(category, key, () -> fRobotConfiguration.getString(category, key));
+    }
+
+    @Override
+    public <T> List getList(String category, String key) {
+        return profile(category, key, () -> fRobotConfiguration.getList(category, key));
+    }
+
+    @Override
+    public <K, V> Map<K, V> getMap(String category, String key) {
+        return profile(category, key, () -> fRobotConfiguration.getMap(category, key));
+    }
+
+    @Override
+    public <T> Set getSet(String category, String key) {
+        return profile(category, key, () -> fRobotConfiguration.getSet(category, key));
+    }
+
+    @Override
+    public <T extends Enum<T>> T getEnum(String category, String key, Class<T> enumClass) {
+        return profile(category, key, () -> fRobotConfiguration.getEnum(category, key, enumClass));
+    }
+
+    @Override
+    public boolean contains(String category, String key) {
+        return profile(category, key, () -> fRobotConfiguration.contains(category, key));
+    }
+
+    @Override
+    public boolean categoryIsEmpty(String category) {
+        return profile(SOURCE, category, () -> fRobotConfiguration.categoryIsEmpty(category));
+    }
+
+    @Override
+    public String toString() {
+        return fRobotConfiguration.toString();
+    }
+
+    private static <T> T profile(String source, String key, Supplier<T> read) {
+        long startTime = System.nanoTime();
+        try {
+            return read.get();
+        } finally {
+            ConfigAccessProfiler.record(source, key, startTime);
+        }
+    }
+}
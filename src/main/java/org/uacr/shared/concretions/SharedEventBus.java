@@ -1,17 +1,30 @@
 package org.uacr.shared.concretions;
 
+import org.uacr.events.sim.SimInputSetEvent;
 import org.uacr.shared.abstractions.EventBus;
 import org.uacr.utilities.eventbus.AbstractEventBus;
 import org.uacr.utilities.eventbus.AsyncEventBus;
+import org.uacr.utilities.eventbus.BoundedEventBus;
+import org.uacr.utilities.eventbus.SyncEventBus;
+import org.uacr.utilities.eventbus.Synchronous;
 import org.uacr.utilities.injection.Singleton;
 import org.uacr.utilities.logging.LogManager;
 import org.uacr.utilities.logging.Logger;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 /**
  * Handles the distribution of messages in Sim mode
  * Objects register with the event bus and then will receive messages posted
+ * Events are delivered on a thread pool unless their type is annotated with @Synchronous or set as synchronous,
+ * in which case they are delivered on the posting thread
+ * Sim input set events go through a bounded mailbox for each listener and are coalesced by input name,
+ * so when a listener falls behind it only receives the latest value of each input, every other event is always delivered
  */
 
 @Singleton
@@ -19,13 +32,63 @@ public class SharedEventBus implements EventBus {
 
     private static final Logger sLogger = LogManager.getLogger(SharedEventBus.class);
 
+    // The most sim input set events that can wait for a single listener before the oldest are dropped
+    private static final int MAILBOX_CAPACITY = 1024;
+
     private final AbstractEventBus fEventBus;
+    private final BoundedEventBus fSimInputEventBus;
+    private final AbstractEventBus fSyncEventBus;
+    private final Map<Class<?>, Boolean> fSynchronousTypes;
 
     /**
-     * Create a new AsyncEventBus (can handle multiple messages at the same time)
+     * Create a new AsyncEventBus (can handle multiple messages at the same time), a BoundedEventBus that coalesces sim input set events
+     * and a SyncEventBus for in frame events
      */
     public SharedEventBus() {
-        fEventBus = new AsyncEventBus(Executors.newFixedThreadPool(4));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        fEventBus = new AsyncEventBus(executor);
+        fSimInputEventBus = new BoundedEventBus(executor, MAILBOX_CAPACITY, BoundedEventBus.OverflowPolicy.COALESCE);
+        // Keyed by event class as well as name so a subscriber to every SimInputSetEvent does not lose a boolean to a numeric of the same name
+        fSimInputEventBus.setCoalescingKey(SimInputSetEvent.class, event -> Arrays.asList(event.getClass(), event.getName()));
+        fSyncEventBus = new SyncEventBus();
+        fSynchronousTypes = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Selects whether events of a type are delivered on the posting thread, overriding the @Synchronous annotation
+     * @param eventType the class of the event
+     * @param synchronous true to deliver on the posting thread
+     */
+    public void setSynchronous(Class<?> eventType, boolean synchronous) {
+        sLogger.debug("Posting '{}' events {}", eventType.getSimpleName(), synchronous ? "synchronously" : "asynchronously");
+
+        fSynchronousTypes.put(eventType, synchronous);
+    }
+
+    /**
+     * @param eventType the class of the event
+     * @return true if events of the type are delivered on the posting thread
+     */
+    public boolean isSynchronous(Class<?> eventType) {
+        return fSynchronousTypes.computeIfAbsent(eventType, type -> type.isAnnotationPresent(Synchronous.class));
+    }
+
+    /**
+     * @return a snapshot of the mailbox metrics of every listener of sim input set events
+     */
+    public List<BoundedEventBus.MailboxMetrics> getMetrics() {
+        return fSimInputEventBus.getMetrics();
+    }
+
+    /**
+     * @return the total number of asynchronous events replaced by a newer event for the same input before being delivered
+     */
+    public long getCoalescedCount() {
+        long coalesced = 0;
+        for (BoundedEventBus.MailboxMetrics metrics : fSimInputEventBus.getMetrics()) {
+            coalesced += metrics.getCoalesced();
+        }
+        return coalesced;
     }
 
     /**
@@ -37,6 +100,8 @@ public class SharedEventBus implements EventBus {
         sLogger.trace("Registering object '{}'", object);
 
         fEventBus.register(object);
+        fSimInputEventBus.register(object);
+        fSyncEventBus.register(object);
     }
 
     /**
@@ -47,7 +112,13 @@ public class SharedEventBus implements EventBus {
     public void post(Object object) {
         sLogger.trace("Posting object '{}'", object);
 
-        fEventBus.post(object);
+        if (isSynchronous(object.getClass())) {
+            fSyncEventBus.post(object);
+        } else if (object instanceof SimInputSetEvent) {
+            fSimInputEventBus.post(object);
+        } else {
+            fEventBus.post(object);
+        }
     }
 
     /**
@@ -60,5 +131,7 @@ public class SharedEventBus implements EventBus {
         sLogger.debug("Unregistering object '{}'", object);
 
         fEventBus.unregister(object);
+        fSimInputEventBus.unregister(object);
+        fSyncEventBus.unregister(object);
     }
 }
@@ -7,20 +7,26 @@ import org.uacr.utilities.injection.Singleton;
 
 import java.lang.reflect.Constructor;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Handles the instantiation and storing of external hardware objects
+ * Services can request hardware from different threads, each object is only constructed once
  */
 
 @Singleton
 public class SharedHardwareFactory implements HardwareFactory {
 
-    private final HashMap<MultiObjectKey, Object> fObjectMap;
+    private final Map<MultiObjectKey, Object> fObjectMap;
+    // Constructors by the class followed by the parameter types
+    private final Map<List<Class<?>>, Constructor<?>> fConstructors;
 
     @Inject
     public SharedHardwareFactory() {
-        fObjectMap = new HashMap<>();
+        fObjectMap = new ConcurrentHashMap<>();
+        fConstructors = new ConcurrentHashMap<>();
     }
 
     /**
@@ -34,14 +40,14 @@ public class SharedHardwareFactory implements HardwareFactory {
     public <T> T get(Class<T> tClass, Object... parameters) {
         MultiObjectKey key = createKey(tClass, parameters);
 
-        if (fObjectMap.containsKey(key)) {
-            @SuppressWarnings("unchecked")
-            T tObject = (T) fObjectMap.get(key);
-            return tObject;
+        // Checked first so requests for existing hardware do not lock, computeIfAbsent makes sure only one thread constructs a new object
+        Object object = fObjectMap.get(key);
+        if (object == null) {
+            object = fObjectMap.computeIfAbsent(key, k -> construct(tClass, parameters));
         }
 
-        T tObject = construct(tClass, parameters);
-        fObjectMap.put(key, tObject);
+        @SuppressWarnings("unchecked")
+        T tObject = (T) object;
         return tObject;
     }
 
@@ -54,8 +60,7 @@ public class SharedHardwareFactory implements HardwareFactory {
      * @return the new hardware object
      */
     private <T> T construct(Class<T> tClass, Object... parameters) {
-        Class<?>[] parameterTypes = getParameterTypes(parameters);
-        Constructor<?> tConstructor = getConstructor(tClass, parameterTypes);
+        Constructor<?> tConstructor = getConstructor(tClass, parameters);
         try {
             @SuppressWarnings("unchecked")
             T tObject = (T) tConstructor.newInstance(parameters);
@@ -67,6 +72,23 @@ public class SharedHardwareFactory implements HardwareFactory {
         }
     }
 
+    /**
+     * Finds the correct constructor of tClass for the parameters, the constructor is cached by the class and the parameter types
+     *
+     * @param tClass the class to find the constructor of
+     * @param parameters the parameters the constructor will be called with
+     * @return the correct constructor of the object
+     */
+    private Constructor<?> getConstructor(Class<?> tClass, Object[] parameters) {
+        Class<?>[] key = new Class<?>[parameters.length + 1];
+        key[0] = tClass;
+        for (int p = 0; p < parameters.length; p++) {
+            key[p + 1] = parameters[p].getClass();
+        }
+
+        return fConstructors.computeIfAbsent(Arrays.asList(key), k -> getConstructor(tClass, getParameterTypes(parameters)));
+    }
+
     /**
      * Finds the correct constructor of tClass with the provided parameterTypes
      *
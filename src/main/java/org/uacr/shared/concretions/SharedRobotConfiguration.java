@@ -3,6 +3,7 @@ package org.uacr.shared.concretions;
 import org.uacr.models.exceptions.ConfigurationException;
 import org.uacr.models.exceptions.ConfigurationInvalidTypeException;
 import org.uacr.shared.abstractions.RobotConfiguration;
+import org.uacr.utilities.NameIndex;
 import org.uacr.utilities.YamlConfigParser;
 import org.uacr.utilities.injection.Singleton;
 import org.uacr.utilities.logging.LogManager;
@@ -10,6 +11,7 @@ import org.uacr.utilities.logging.Logger;
 
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * Stores and allows access to all information in the robot-configuration.yaml file
@@ -22,6 +24,25 @@ public class SharedRobotConfiguration implements RobotConfiguration {
 
     private Map<String, Map<String, Object>> mData;
 
+    // Derived views built once at construction, null if robot-configuration.yaml is missing what they are built from
+    // so the getter can rebuild them and throw the same exception it always has
+    @Nullable
+    private final NameIndex fSubsystemNames;
+    @Nullable
+    private final NameIndex fStateNames;
+    @Nullable
+    private final Map<String, Set<String>> fStateNamesWithPriority;
+    @Nullable
+    private final NameIndex fInputBooleanNames;
+    @Nullable
+    private final NameIndex fInputNumericNames;
+    @Nullable
+    private final NameIndex fInputVectorNames;
+    @Nullable
+    private final NameIndex fOutputNumericNames;
+    @Nullable
+    private final NameIndex fOutputBooleanNames;
+
     public SharedRobotConfiguration() {
         sLogger.trace("Loading robot-configuration.yaml file");
 
@@ -29,6 +50,15 @@ public class SharedRobotConfiguration implements RobotConfiguration {
         parser.loadWithFolderName("robot-configuration.yaml");
         mData = parser.getData();
 
+        fSubsystemNames = tryBuild(() -> buildNames("general", "subsystems"));
+        fStateNames = tryBuild(this::buildStateNames);
+        fStateNamesWithPriority = tryBuild(this::buildStateNamesWithPriority);
+        fInputBooleanNames = tryBuild(() -> buildNames("general", "input_booleans"));
+        fInputNumericNames = tryBuild(() -> buildNames("general", "input_numerics"));
+        fInputVectorNames = tryBuild(() -> buildNames("general", "input_vectors"));
+        fOutputNumericNames = tryBuild(() -> buildNames("general", "output_numerics"));
+        fOutputBooleanNames = tryBuild(() -> buildNames("general", "output_booleans"));
+
         sLogger.trace("Loaded");
     }
 
@@ -42,11 +72,139 @@ public class SharedRobotConfiguration implements RobotConfiguration {
     }
 
     /**
-     * @return a map containing all the state names listed in robot-configuration.yaml organized by priority level only
+     * @return a map containing all the state names listed in robot-configuration.yaml organized by priority level only, the map and sets can not be modified
      */
 
     @Override
     public Map<String, Set<String>> getStateNamesWithPriority() {
+        return fStateNamesWithPriority != null ? fStateNamesWithPriority : buildStateNamesWithPriority();
+    }
+
+    /**
+     * @return a set of all the state names listed in robot-configuration.yaml, the set can not be modified
+     */
+
+    @Override
+    public Set<String> getStateNames() {
+        return getStateIndex().getNames();
+    }
+
+    /**
+     * @return the list of subsystem names specified in robot-configuration.yaml, the set can not be modified
+     */
+    @Override
+    public Set<String> getSubsystemNames() {
+        return getSubsystemIndex().getNames();
+    }
+
+    /**
+     * @return the list of InputBoolean names specified in robot-configuration.yaml, the set can not be modified
+     */
+
+    @Override
+    public Set<String> getInputBooleanNames() {
+        return getInputBooleanIndex().getNames();
+    }
+
+    /**
+     * @return the list of InputNumeric names specified in robot-configuration.yaml, the set can not be modified
+     */
+
+    @Override
+    public Set<String> getInputNumericNames() {
+        return getInputNumericIndex().getNames();
+    }
+
+    /**
+     * @return the list of InputVector names specified in robot-configuration.yaml, the set can not be modified
+     */
+
+    @Override
+    public Set<String> getInputVectorNames() {
+        return getInputVectorIndex().getNames();
+    }
+
+    /**
+     * @return the list of OutputNumeric names specified in robot-configuration.yaml, the set can not be modified
+     */
+
+    @Override
+    public Set<String> getOutputNumericNames() {
+        return getOutputNumericIndex().getNames();
+    }
+
+    /**
+     * @return the list of OutputBoolean names specified in robot-configuration.yaml, the set can not be modified
+     */
+
+    @Override
+    public Set<String> getOutputBooleanNames() {
+        return getOutputBooleanIndex().getNames();
+    }
+
+    @Override
+    public NameIndex getStateIndex() {
+        return fStateNames != null ? fStateNames : buildStateNames();
+    }
+
+    @Override
+    public NameIndex getSubsystemIndex() {
+        return fSubsystemNames != null ? fSubsystemNames : buildNames("general", "subsystems");
+    }
+
+    @Override
+    public NameIndex getInputBooleanIndex() {
+        return fInputBooleanNames != null ? fInputBooleanNames : buildNames("general", "input_booleans");
+    }
+
+    @Override
+    public NameIndex getInputNumericIndex() {
+        return fInputNumericNames != null ? fInputNumericNames : buildNames("general", "input_numerics");
+    }
+
+    @Override
+    public NameIndex getInputVectorIndex() {
+        return fInputVectorNames != null ? fInputVectorNames : buildNames("general", "input_vectors");
+    }
+
+    @Override
+    public NameIndex getOutputNumericIndex() {
+        return fOutputNumericNames != null ? fOutputNumericNames : buildNames("general", "output_numerics");
+    }
+
+    @Override
+    public NameIndex getOutputBooleanIndex() {
+        return fOutputBooleanNames != null ? fOutputBooleanNames : buildNames("general", "output_booleans");
+    }
+
+    /**
+     * @return the result of the builder, or null if robot-configuration.yaml does not have what it needs
+     */
+    @Nullable
+    private static <T> T tryBuild(Supplier<T> builder) {
+        try {
+            return builder.get();
+        } catch (ConfigurationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the names listed under a key in the order they are listed
+     */
+    private NameIndex buildNames(String category, String key) {
+        ensureExists(category, key);
+        try {
+            return new NameIndex((List<String>) mData.get(category).get(key));
+        } catch (ClassCastException ex) {
+            throw new ConfigurationInvalidTypeException("set", key, mData.get(category).get(key));
+        }
+    }
+
+    /**
+     * @return the keys of the state lists: sequences, parallels and then every subsystem
+     */
+    private Set<String> buildStateKeys() {
         // Holds keys for all the subsystems plus sequences and parallels
         Set<String> stateKeys = new LinkedHashSet<>();
 
@@ -55,12 +213,18 @@ public class SharedRobotConfiguration implements RobotConfiguration {
 
         stateKeys.addAll(getSubsystemNames());
 
+        return stateKeys;
+    }
+
+    private Map<String, Set<String>> buildStateNamesWithPriority() {
+        Set<String> stateKeys = buildStateKeys();
+
         // A map of all states listed in robot-configuration.yaml
         @Nullable
         Map<String, Map<String, List<String>>> yamlStateMaps = getMap("general", "states");
 
         // Holds the states sorted by priority and not stateKey (subsystem name, sequence or parallel)
-        Map<String, Set<String>> stateMap = new HashMap<>();
+        Map<String, Set<String>> stateMap = new LinkedHashMap<>();
 
         // Loop through each state key (subsystem name, sequence or parallel) and add its states to the stateMap with the correct priority level
         if (yamlStateMaps != null) {
@@ -82,41 +246,27 @@ public class SharedRobotConfiguration implements RobotConfiguration {
                         List<String> singlePriorityStateList = singlePriorityMap.getValue();
                         //If the current priority level already exists add all states for this stateKey (subsystem name, sequence or parallel)
                         //If it doesn't already exist, create it and then add all states for this stateKey (subsystem name, sequence or parallel)
-                        if (stateMap.containsKey(priority)) {
-                            stateMap.get(priority).addAll(singlePriorityStateList);
-                        } else {
-                            Set<String> singlePriorityStateNames = new LinkedHashSet<>();
-
-                            singlePriorityStateNames.addAll(singlePriorityStateList);
-
-                            stateMap.put(priority, singlePriorityStateNames);
-                        }
+                        stateMap.computeIfAbsent(priority, p -> new LinkedHashSet<>()).addAll(singlePriorityStateList);
                     }
                 }
             }
         }
 
         // A map containing all states grouped by priority level
-        return stateMap;
+        Map<String, Set<String>> unmodifiableStateMap = new LinkedHashMap<>();
+        for (Map.Entry<String, Set<String>> priority : stateMap.entrySet()) {
+            unmodifiableStateMap.put(priority.getKey(), Collections.unmodifiableSet(priority.getValue()));
+        }
+        return Collections.unmodifiableMap(unmodifiableStateMap);
     }
 
-    /**
-     * @return a set of all the state names listed in robot-configuration.yaml
-     */
-
-    @Override
-    public Set<String> getStateNames() {
-        Set<String> stateKeys = new LinkedHashSet<>();
-
-        stateKeys.add("sequences");
-        stateKeys.add("parallels");
-
-        stateKeys.addAll(getSubsystemNames());
+    private NameIndex buildStateNames() {
+        Set<String> stateKeys = buildStateKeys();
 
         @Nullable
         Map<String, Map<String, List<String>>> yamlStateMaps = getMap("general", "states");
 
-        Set<String> stateSet = new LinkedHashSet<>();
+        List<String> stateNames = new ArrayList<>();
 
         if (yamlStateMaps != null) {
             for (String stateKey : stateKeys) {
@@ -129,68 +279,13 @@ public class SharedRobotConfiguration implements RobotConfiguration {
 
                 if (singleKeyStateMap != null) {
                     for (Map.Entry<String, List<String>> singlePriorityMap : singleKeyStateMap.entrySet()) {
-                        List<String> singlePriorityStateList = singlePriorityMap.getValue();
-
-                        stateSet.addAll(singlePriorityStateList);
+                        stateNames.addAll(singlePriorityMap.getValue());
                     }
                 }
             }
         }
 
-        return stateSet;
-    }
-
-    /**
-     * @return the list of subsystem names specified in robot-configuration.yaml
-     */
-    @Override
-    public Set<String> getSubsystemNames() {
-        return getSet("general", "subsystems");
-    }
-
-    /**
-     * @return the list of InputBoolean names specified in robot-configuration.yaml
-     */
-
-    @Override
-    public Set<String> getInputBooleanNames() {
-        return getSet("general", "input_booleans");
-    }
-
-    /**
-     * @return the list of InputNumeric names specified in robot-configuration.yaml
-     */
-
-    @Override
-    public Set<String> getInputNumericNames() {
-        return getSet("general", "input_numerics");
-    }
-
-    /**
-     * @return the list of InputVector names specified in robot-configuration.yaml
-     */
-
-    @Override
-    public Set<String> getInputVectorNames() {
-        return getSet("general", "input_vectors");
-    }
-
-    /**
-     * @return the list of OutputNumeric names specified in robot-configuration.yaml
-     */
-
-    @Override
-    public Set<String> getOutputNumericNames() {
-        return getSet("general", "output_numerics");
-    }
-
-    /**
-     * @return the list of OutputBoolean names specified in robot-configuration.yaml
-     */
-
-    @Override
-    public Set<String> getOutputBooleanNames() {
-        return getSet("general", "output_booleans");
+        return new NameIndex(stateNames);
     }
 
     /**
@@ -335,6 +430,7 @@ public class SharedRobotConfiguration implements RobotConfiguration {
 
     /**
      * Retrieves a Set from a key value pair specified under a category in robot-configuration.yaml
+     * A new modifiable set is built each call, the name getters return sets built once at construction
      * @param category to retrieves value from
      * @param key for the value to be returned
      * @return the desired value as a Set if it exists
@@ -0,0 +1,77 @@
+package org.uacr.utilities;
+
+import org.uacr.models.exceptions.ConfigurationException;
+
+/**
+ * The values of a Config read once by a ConfigSchema and stored in primitive arrays
+ * Reading a value is an array access with no map lookup, cast, boxing or exception handling,
+ * so it is safe to read from initialize and update every time a state is entered
+ * <p>
+ * Keys must come from the schema the config was compiled with, a key from another schema throws a ConfigurationException
+ * instead of reading whatever value has the same index
+ */
+
+public class CompiledConfig {
+
+    final double[] fDoubles;
+    final int[] fInts;
+    final boolean[] fBooleans;
+    final Object[] fObjects;
+
+    private final ConfigSchema fSchema;
+    private final String fType;
+
+    CompiledConfig(ConfigSchema schema, String type, int doubles, int ints, int booleans, int objects) {
+        fSchema = schema;
+        fType = type;
+
+        fDoubles = new double[doubles];
+        fInts = new int[ints];
+        fBooleans = new boolean[booleans];
+        fObjects = new Object[objects];
+    }
+
+    /**
+     * @return the schema the config was compiled with
+     */
+    public ConfigSchema getSchema() {
+        return fSchema;
+    }
+
+    /**
+     * @return the type of object (the category it is listed under in the config file) such as "behavior_config"
+     */
+    public String getType() {
+        return fType;
+    }
+
+    public double get(ConfigSchema.DoubleKey key) {
+        checkSchema(key);
+        return fDoubles[key.fIndex];
+    }
+
+    public int get(ConfigSchema.IntKey key) {
+        checkSchema(key);
+        return fInts[key.fIndex];
+    }
+
+    public boolean get(ConfigSchema.BooleanKey key) {
+        checkSchema(key);
+        return fBooleans[key.fIndex];
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(ConfigSchema.ObjectKey<T> key) {
+        checkSchema(key);
+        return (T) fObjects[key.fIndex];
+    }
+
+    /**
+     * @throws ConfigurationException if the key was declared by a different schema than the one this config was compiled with
+     */
+    private void checkSchema(ConfigSchema.Key key) {
+        if (key.fSchema != fSchema) {
+            throw new ConfigurationException("***** Key '" + key.fName + "' was not declared by the schema " + fType + " was compiled with *****");
+        }
+    }
+}
@@ -19,6 +19,10 @@ public class Config {
     private final Map<String, Object> fData;
     private final String fType;
 
+    // The last compiled form of this config, configs are usually only compiled with one schema
+    @Nullable
+    private volatile CompiledConfig mCompiledConfig;
+
     /**
      * @param type the type of object (the category it is listed under in the config file) such as "controller_button" or "single_state"
      * @param data the configuration data for the object
@@ -30,6 +34,23 @@ public class Config {
             data = new HashMap<>();
         }
         fData = data;
+        mCompiledConfig = null;
+    }
+
+    /**
+     * Reads every value declared in the schema into a CompiledConfig
+     * The result is kept, so compiling again with the same schema (such as every time a behavior is initialized) only compares the schema
+     * @throws ConfigurationException If a required value is missing or a value has the wrong type
+     * @param schema the values and types expected in this config
+     * @return the typed values of this config
+     */
+    public CompiledConfig compile(ConfigSchema schema) {
+        CompiledConfig compiledConfig = mCompiledConfig;
+        if (compiledConfig == null || compiledConfig.getSchema() != schema) {
+            compiledConfig = schema.compile(this);
+            mCompiledConfig = compiledConfig;
+        }
+        return compiledConfig;
     }
 
     /**
@@ -0,0 +1,261 @@
+package org.uacr.utilities;
+
+import org.uacr.utilities.logging.LogManager;
+import org.uacr.utilities.logging.Logger;
+import org.yaml.snakeyaml.Yaml;
+
+import javax.annotation.Nullable;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * A single file holding every yaml config file already parsed with the robot variation applied, so the robot can skip parsing yaml at start up
+ * The bundle is built by running main from the robot project's build, and is loaded from the classpath as config-bundle.bin
+ * <p>
+ * The robot project builds it into its own resources with a task such as:
+ * <pre>
+ * task buildConfigBundle(type: JavaExec) {
+ *     dependsOn processResources
+ *     classpath = configurations.runtimeClasspath
+ *     main = 'org.uacr.utilities.ConfigBundle'
+ *     args 'src/main/resources', "${sourceSets.main.output.resourcesDir}/config-bundle.bin"
+ *     inputs.dir 'src/main/resources'
+ *     outputs.file "${sourceSets.main.output.resourcesDir}/config-bundle.bin"
+ * }
+ * jar.dependsOn buildConfigBundle
+ * </pre>
+ * <p>
+ * Each file is stored with the CRC32 of its yaml, if the yaml is on the classpath and has changed since the bundle was built, or the robot variation
+ * has changed, the yaml is parsed instead
+ */
+
+public class ConfigBundle {
+
+    private static final Logger sLogger = LogManager.getLogger(ConfigBundle.class);
+
+    public static final String BUNDLE_PATH = "config-bundle.bin";
+
+    // Variation used by YamlConfigParser.load when loadWithFolderName is not used
+    private static final String NO_VARIATION = "none";
+    private static final int VERSION = 1;
+
+    private static final Map<ClassLoader, Map<List<String>, BundledFile>> sBundles = new ConcurrentHashMap<>();
+
+    /**
+     * Builds a config bundle from the command line
+     *
+     * @param args the directory containing the yaml files and the bundle file to write
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ConfigBundle <config directory> <bundle file>");
+            System.exit(1);
+        }
+
+        try {
+            write(Paths.get(args[0]), Paths.get(args[1]));
+        } catch (FileNotFoundException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Parses every yaml file in a directory with no variation and with the robot variation from general.yaml and writes them to a bundle
+     *
+     * @param configDirectory the directory containing the yaml files, file names in the bundle are relative to it
+     * @param bundleFile      the bundle file to write
+     * @throws FileNotFoundException if the config directory does not exist
+     */
+    public static void write(Path configDirectory, Path bundleFile) throws IOException {
+        if (!Files.isDirectory(configDirectory)) {
+            throw new FileNotFoundException("Config directory '" + configDirectory.toAbsolutePath() + "' does not exist, pass the directory containing the yaml config files");
+        }
+
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(configDirectory)) {
+            files = paths.filter(Files::isRegularFile)
+                    .filter(file -> file.toString().endsWith(".yaml") || file.toString().endsWith(".yml"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        String variation = readRobotVariation(configDirectory.resolve("general.yaml"));
+
+        if (bundleFile.getParent() != null) {
+            Files.createDirectories(bundleFile.getParent());
+        }
+
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(bundleFile)))) {
+            out.writeInt(VERSION);
+            out.writeUTF(variation);
+            out.writeInt(files.size());
+
+            for (Path file : files) {
+                byte[] bytes = Files.readAllBytes(file);
+                CRC32 crc = new CRC32();
+                crc.update(bytes);
+
+                out.writeUTF(configDirectory.relativize(file).toString().replace(File.separatorChar, '/'));
+                out.writeLong(crc.getValue());
+                writeResolved(out, bytes, NO_VARIATION);
+                writeResolved(out, bytes, variation);
+            }
+        }
+
+        sLogger.info("Wrote {} config files with variation '{}' to {}", files.size(), variation, bundleFile);
+    }
+
+    /**
+     * Finds a file in the bundle on the classpath, the bundle is read the first time it is used
+     *
+     * @param classLoader the class loader to find the bundle and the yaml file with
+     * @param path        the resource path of the yaml file
+     * @param variation   the robot variation the file is loaded with
+     * @return the parsed data of the file, or null if it is not in the bundle or the bundle is stale
+     */
+    @Nullable
+    public static BundledFile get(ClassLoader classLoader, String path, String variation) {
+        BundledFile bundledFile = sBundles.computeIfAbsent(classLoader, ConfigBundle::read).get(Arrays.asList(path, variation));
+        if (bundledFile == null) {
+            return null;
+        }
+
+        // Without the yaml on the classpath the bundle is the only copy of the file
+        try (InputStream yaml = classLoader.getResourceAsStream(path)) {
+            if (yaml != null && checksum(yaml) != bundledFile.fChecksum) {
+                sLogger.debug("Config bundle is out of date for '{}', parsing the yaml instead", path);
+                return null;
+            }
+        } catch (IOException e) {
+            sLogger.error("Cannot read config file '{}': {}", path, e);
+            return null;
+        }
+
+        return bundledFile;
+    }
+
+    /**
+     * Reads every file in a bundle, a missing or unreadable bundle has no files
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<List<String>, BundledFile> read(ClassLoader classLoader) {
+        Map<List<String>, BundledFile> files = new HashMap<>();
+
+        InputStream bundle = classLoader.getResourceAsStream(BUNDLE_PATH);
+        if (bundle == null) {
+            return files;
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(bundle))) {
+            int version = in.readInt();
+            if (version != VERSION) {
+                sLogger.error("Config bundle version {} is not supported, rebuild it with buildConfigBundle", version);
+                return files;
+            }
+
+            String variation = in.readUTF();
+            int count = in.readInt();
+
+            for (int f = 0; f < count; f++) {
+                String path = in.readUTF();
+                long checksum = in.readLong();
+
+                Map<String, Map<String, Object>> data = (Map<String, Map<String, Object>>) in.readObject();
+                Map<String, String> nameTypes = (Map<String, String>) in.readObject();
+                files.put(Arrays.asList(path, NO_VARIATION), new BundledFile(checksum, data, nameTypes));
+
+                data = (Map<String, Map<String, Object>>) in.readObject();
+                nameTypes = (Map<String, String>) in.readObject();
+                files.put(Arrays.asList(path, variation), new BundledFile(checksum, data, nameTypes));
+            }
+
+            sLogger.debug("Read {} config files with variation '{}' from the config bundle", count, variation);
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            sLogger.error("Cannot read config bundle, parsing the yaml instead: {}", e);
+            files.clear();
+        }
+
+        return files;
+    }
+
+    private static void writeResolved(ObjectOutputStream out, byte[] yaml, String variation) throws IOException {
+        Map<String, Map<String, Object>> data = parse(yaml);
+        Map<String, String> nameTypes = YamlConfigCache.resolve(data, variation);
+
+        out.writeObject(data);
+        out.writeObject(nameTypes);
+    }
+
+    // Reads the variation the same way as YamlConfigParser.loadWithFolderName
+    private static String readRobotVariation(Path general) throws IOException {
+        if (!Files.exists(general)) {
+            return "";
+        }
+
+        Map<String, Map<String, Object>> data = parse(Files.readAllBytes(general));
+        Map<String, String> nameTypes = YamlConfigCache.resolve(data, NO_VARIATION);
+        if (!nameTypes.containsKey("robot")) {
+            return "";
+        }
+
+        Object robot = data.get(nameTypes.get("robot")).get("robot");
+        if (robot instanceof Map && ((Map) robot).get("robot_variation") != null) {
+            return ((Map) robot).get("robot_variation").toString();
+        }
+
+        return "";
+    }
+
+    private static Map<String, Map<String, Object>> parse(byte[] yaml) {
+        Map<String, Map<String, Object>> data = new Yaml().load(new ByteArrayInputStream(yaml));
+        return data != null ? data : new HashMap<>();
+    }
+
+    private static long checksum(InputStream in) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            crc.update(buffer, 0, read);
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * The parsed data of one file in the bundle, the data is not read only
+     */
+    public static class BundledFile {
+
+        private final long fChecksum;
+        private final Map<String, Map<String, Object>> fData;
+        private final Map<String, String> fNameTypes;
+
+        private BundledFile(long checksum, Map<String, Map<String, Object>> data, Map<String, String> nameTypes) {
+            fChecksum = checksum;
+            fData = data;
+            fNameTypes = nameTypes;
+        }
+
+        /**
+         * @return the data of the file by type and then name
+         */
+        public Map<String, Map<String, Object>> getData() {
+            return fData;
+        }
+
+        /**
+         * @return the type (category) each name is listed under
+         */
+        public Map<String, String> getNameTypes() {
+            return fNameTypes;
+        }
+    }
+}
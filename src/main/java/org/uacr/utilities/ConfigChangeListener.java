@@ -0,0 +1,17 @@
+package org.uacr.utilities;
+
+import java.util.Set;
+
+/**
+ * Notified by the YamlConfigWatcher when a config file is edited
+ */
+
+public interface ConfigChangeListener {
+
+    /**
+     * Called on the watcher thread, so anything used by a service loop should be handed over between frames
+     * @param config the new read only data of the file
+     * @param changedNames the names in the file whose config was added, removed or changed
+     */
+    void onConfigChanged(YamlConfigCache.CachedConfig config, Set<String> changedNames);
+}
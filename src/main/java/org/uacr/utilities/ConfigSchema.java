@@ -0,0 +1,180 @@
+package org.uacr.utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Declares the values a Config is expected to have and their types
+ * Each declared value gets a key that reads it from a CompiledConfig with an array index instead of a map lookup and cast
+ * <p>
+ * Usually declared once as a static field of a behavior:
+ * <pre>
+ * private static final ConfigSchema sSchema = new ConfigSchema();
+ * private static final ConfigSchema.DoubleKey sSpeed = sSchema.requireDouble("speed");
+ * private static final ConfigSchema.BooleanKey sReversed = sSchema.optionalBoolean("reversed", false);
+ * </pre>
+ * Every key must be declared before the schema is first used to compile a config
+ */
+
+public class ConfigSchema {
+
+    private final List<BiConsumer<Config, CompiledConfig>> fReaders;
+
+    private int mDoubleCount;
+    private int mIntCount;
+    private int mBooleanCount;
+    private int mObjectCount;
+    private boolean mCompiled;
+
+    public ConfigSchema() {
+        fReaders = new ArrayList<>();
+
+        mDoubleCount = 0;
+        mIntCount = 0;
+        mBooleanCount = 0;
+        mObjectCount = 0;
+        mCompiled = false;
+    }
+
+    public DoubleKey requireDouble(String name) {
+        DoubleKey key = new DoubleKey(this, name, mDoubleCount++);
+        addReader((config, compiled) -> compiled.fDoubles[key.fIndex] = config.getDouble(name));
+        return key;
+    }
+
+    public DoubleKey optionalDouble(String name, double defaultValue) {
+        DoubleKey key = new DoubleKey(this, name, mDoubleCount++);
+        addReader((config, compiled) -> compiled.fDoubles[key.fIndex] = config.getDouble(name, defaultValue));
+        return key;
+    }
+
+    public IntKey requireInt(String name) {
+        IntKey key = new IntKey(this, name, mIntCount++);
+        addReader((config, compiled) -> compiled.fInts[key.fIndex] = config.getInt(name));
+        return key;
+    }
+
+    public IntKey optionalInt(String name, int defaultValue) {
+        IntKey key = new IntKey(this, name, mIntCount++);
+        addReader((config, compiled) -> compiled.fInts[key.fIndex] = config.getInt(name, defaultValue));
+        return key;
+    }
+
+    public BooleanKey requireBoolean(String name) {
+        BooleanKey key = new BooleanKey(this, name, mBooleanCount++);
+        addReader((config, compiled) -> compiled.fBooleans[key.fIndex] = config.getBoolean(name));
+        return key;
+    }
+
+    public BooleanKey optionalBoolean(String name, boolean defaultValue) {
+        BooleanKey key = new BooleanKey(this, name, mBooleanCount++);
+        addReader((config, compiled) -> compiled.fBooleans[key.fIndex] = config.getBoolean(name, defaultValue));
+        return key;
+    }
+
+    public ObjectKey<String> requireString(String name) {
+        ObjectKey<String> key = new ObjectKey<>(this, name, mObjectCount++);
+        addReader((config, compiled) -> compiled.fObjects[key.fIndex] = config.getString(name));
+        return key;
+    }
+
+    public ObjectKey<String> optionalString(String name, String defaultValue) {
+        ObjectKey<String> key = new ObjectKey<>(this, name, mObjectCount++);
+        addReader((config, compiled) -> compiled.fObjects[key.fIndex] = config.getString(name, defaultValue));
+        return key;
+    }
+
+    public <T extends Enum<T>> ObjectKey<T> requireEnum(String name, Class<T> enumClass) {
+        ObjectKey<T> key = new ObjectKey<>(this, name, mObjectCount++);
+        addReader((config, compiled) -> compiled.fObjects[key.fIndex] = config.getEnum(name, enumClass));
+        return key;
+    }
+
+    public <T extends Enum<T>> ObjectKey<T> optionalEnum(String name, Class<T> enumClass, T defaultValue) {
+        ObjectKey<T> key = new ObjectKey<>(this, name, mObjectCount++);
+        addReader((config, compiled) -> compiled.fObjects[key.fIndex] = config.getEnum(name, enumClass, defaultValue));
+        return key;
+    }
+
+    /**
+     * Reads every declared value with the getters of the config, so a missing or mistyped value throws the same exceptions as reading it directly
+     * @param config the config to compile
+     * @return the typed values of the config
+     */
+    synchronized CompiledConfig compile(Config config) {
+        mCompiled = true;
+
+        CompiledConfig compiled = new CompiledConfig(this, config.getType(), mDoubleCount, mIntCount, mBooleanCount, mObjectCount);
+        for (BiConsumer<Config, CompiledConfig> reader : fReaders) {
+            reader.accept(config, compiled);
+        }
+        return compiled;
+    }
+
+    private synchronized void addReader(BiConsumer<Config, CompiledConfig> reader) {
+        if (mCompiled) {
+            throw new IllegalStateException("Keys must be declared before the schema is used to compile a config");
+        }
+        fReaders.add(reader);
+    }
+
+    /**
+     * The base of all keys, the index of the value in the array for its type
+     */
+    public abstract static class Key {
+
+        final ConfigSchema fSchema;
+        final String fName;
+        final int fIndex;
+
+        private Key(ConfigSchema schema, String name, int index) {
+            fSchema = schema;
+            fName = name;
+            fIndex = index;
+        }
+
+        /**
+         * @return the name of the value in the config
+         */
+        public String getName() {
+            return fName;
+        }
+
+        @Override
+        public String toString() {
+            return fName;
+        }
+    }
+
+    public static class DoubleKey extends Key {
+
+        private DoubleKey(ConfigSchema schema, String name, int index) {
+            super(schema, name, index);
+        }
+    }
+
+    public static class IntKey extends Key {
+
+        private IntKey(ConfigSchema schema, String name, int index) {
+            super(schema, name, index);
+        }
+    }
+
+    public static class BooleanKey extends Key {
+
+        private BooleanKey(ConfigSchema schema, String name, int index) {
+            super(schema, name, index);
+        }
+    }
+
+    /**
+     * @param <T> the type of the value, a String or an Enum
+     */
+    public static class ObjectKey<T> extends Key {
+
+        private ObjectKey(ConfigSchema schema, String name, int index) {
+            super(schema, name, index);
+        }
+    }
+}
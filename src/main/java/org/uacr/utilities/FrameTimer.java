@@ -0,0 +1,83 @@
+package org.uacr.utilities;
+
+/**
+ * Tracks the amount of elapsed time in milliseconds after timer has been started, using the frame clock
+ * The deadline is registered with a FrameTimerWheel which marks the timer as done at the start of the frame it expires in,
+ * so isDone is only a field read
+ * Can be reset and used again
+ */
+
+public class FrameTimer {
+
+    private final FrameTimerWheel fTimerWheel;
+
+    private long mDeadline;
+    private int mSlot;
+    private volatile boolean mIsStarted;
+    private volatile boolean mIsDone;
+
+    FrameTimer(FrameTimerWheel timerWheel) {
+        fTimerWheel = timerWheel;
+
+        mDeadline = -1;
+        mSlot = -1;
+        mIsStarted = false;
+        mIsDone = false;
+    }
+
+    /**
+     * Registers the deadline with the timer wheel, restarting the timer if it was already started
+     * @param durationMs the duration of time to elapse before the timer is complete in milliseconds
+     */
+    public void start(long durationMs) {
+        fTimerWheel.cancel(this);
+
+        mDeadline = fTimerWheel.getFrameTime() + durationMs;
+        mIsStarted = true;
+        mIsDone = false;
+
+        fTimerWheel.schedule(this);
+    }
+
+    /**
+     * Clears the timer so it can be used again
+     */
+
+    public void reset() {
+        fTimerWheel.cancel(this);
+
+        mIsStarted = false;
+        mIsDone = false;
+    }
+
+    /**
+     * @return true if the timer has been started
+     */
+    public boolean isStarted() {
+        return mIsStarted;
+    }
+
+    /**
+     * @return true if the timer has been started and its deadline passed at or before the start of the current frame
+     */
+
+    public boolean isDone() {
+        return mIsDone;
+    }
+
+    long getDeadline() {
+        return mDeadline;
+    }
+
+    int getSlot() {
+        return mSlot;
+    }
+
+    void setSlot(int slot) {
+        mSlot = slot;
+    }
+
+    void expire() {
+        mIsDone = mIsStarted;
+    }
+}
@@ -0,0 +1,187 @@
+package org.uacr.utilities;
+
+import org.uacr.shared.abstractions.InputValues;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hierarchical timer wheel driven by the frame clock (ipn_frame_start_time) like RobotTimer
+ * Expiry of every FrameTimer is computed once per frame when advance is called instead of every time a timer is checked,
+ * and because it only uses the frame start time the results are the same when a match is replayed
+ * <p>
+ * The wheel has a one millisecond tick and four levels of 64 slots, deadlines further out than the top level are parked in the top level and re-cascaded
+ */
+
+public class FrameTimerWheel {
+
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final InputValues fSharedInputValues;
+    private final List<List<FrameTimer>> fSlots;
+    private final List<FrameTimer> fCascade;
+
+    private long mCurrentTick;
+
+    public FrameTimerWheel(InputValues inputValues) {
+        fSharedInputValues = inputValues;
+
+        fSlots = new ArrayList<>(LEVELS * SLOTS);
+        for (int s = 0; s < LEVELS * SLOTS; s++) {
+            fSlots.add(new ArrayList<>());
+        }
+        fCascade = new ArrayList<>();
+
+        mCurrentTick = -1;
+    }
+
+    /**
+     * @return a new timer that is scheduled on this wheel
+     */
+    public FrameTimer createTimer() {
+        return new FrameTimer(this);
+    }
+
+    /**
+     * Called once at the start of every frame
+     * Moves the wheel forward to the current frame start time and marks every timer whose deadline has passed as done
+     */
+    public synchronized void advance() {
+        long now = getFrameTime();
+
+        if (mCurrentTick < 0) {
+            mCurrentTick = now;
+            return;
+        }
+
+        // After a long gap (such as the first frame after start up) it is cheaper to rebuild the wheel than to tick through every millisecond
+        if (now - mCurrentTick > SLOTS) {
+            jumpTo(now);
+            return;
+        }
+
+        while (mCurrentTick < now) {
+            mCurrentTick++;
+            tick();
+        }
+    }
+
+    /**
+     * @return the current frame start time in milliseconds
+     */
+    long getFrameTime() {
+        return (long) fSharedInputValues.getNumeric("ipn_frame_start_time");
+    }
+
+    /**
+     * Adds a timer to the wheel, or marks it as done if its deadline has already passed
+     *
+     * @param timer the timer to schedule
+     */
+    synchronized void schedule(FrameTimer timer) {
+        if (mCurrentTick < 0) {
+            mCurrentTick = getFrameTime();
+        }
+
+        if (timer.getDeadline() <= mCurrentTick) {
+            timer.expire();
+            return;
+        }
+
+        insert(timer);
+    }
+
+    /**
+     * Removes a timer from the wheel if it is scheduled
+     *
+     * @param timer the timer to cancel
+     */
+    synchronized void cancel(FrameTimer timer) {
+        int slot = timer.getSlot();
+        if (slot >= 0) {
+            fSlots.get(slot).remove(timer);
+            timer.setSlot(-1);
+        }
+    }
+
+    /**
+     * Places a timer in the lowest level that can hold its deadline
+     */
+    private void insert(FrameTimer timer) {
+        long deadline = timer.getDeadline();
+        long delta = deadline - mCurrentTick;
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+
+        int slot = level * SLOTS + (int) ((deadline >> (SLOT_BITS * level)) & SLOT_MASK);
+        fSlots.get(slot).add(timer);
+        timer.setSlot(slot);
+    }
+
+    /**
+     * Processes one millisecond tick, cascading the higher levels down when the lower level wraps
+     */
+    private void tick() {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((mCurrentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                break;
+            }
+            int slot = level * SLOTS + (int) ((mCurrentTick >> (SLOT_BITS * level)) & SLOT_MASK);
+            reschedule(fSlots.get(slot));
+        }
+
+        reschedule(fSlots.get((int) (mCurrentTick & SLOT_MASK)));
+    }
+
+    /**
+     * Moves the wheel directly to a time by taking every timer out of the wheel and expiring or re-inserting it
+     */
+    private void jumpTo(long now) {
+        for (List<FrameTimer> slot : fSlots) {
+            fCascade.addAll(slot);
+            slot.clear();
+        }
+
+        mCurrentTick = now;
+
+        for (FrameTimer timer : fCascade) {
+            timer.setSlot(-1);
+            if (timer.getDeadline() <= mCurrentTick) {
+                timer.expire();
+            } else {
+                insert(timer);
+            }
+        }
+
+        fCascade.clear();
+    }
+
+    /**
+     * Expires or re-inserts every timer in a slot
+     */
+    private void reschedule(List<FrameTimer> slot) {
+        if (slot.isEmpty()) {
+            return;
+        }
+
+        fCascade.addAll(slot);
+        slot.clear();
+
+        for (FrameTimer timer : fCascade) {
+            timer.setSlot(-1);
+            if (timer.getDeadline() <= mCurrentTick) {
+                timer.expire();
+            } else {
+                insert(timer);
+            }
+        }
+
+        fCascade.clear();
+    }
+}
@@ -10,6 +10,7 @@ import java.util.Arrays;
 public class MultiObjectKey {
 
     private final Object[] fKeys;
+    private final int fHashCode;
 
     /**
      * Accepts keys and stores them
@@ -21,6 +22,8 @@ public class MultiObjectKey {
             keys = new Object[0];
         }
         fKeys = keys;
+        // The keys are not changed after this, so the hash only needs to be computed once
+        fHashCode = Arrays.deepHashCode(fKeys);
     }
 
     /**
@@ -39,6 +42,6 @@ public class MultiObjectKey {
      */
 
     public int hashCode() {
-        return Arrays.deepHashCode(fKeys);
+        return fHashCode;
     }
 }
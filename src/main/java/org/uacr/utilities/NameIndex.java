@@ -0,0 +1,74 @@
+package org.uacr.utilities;
+
+import java.util.*;
+
+/**
+ * An immutable, ordered set of names where each name has a dense integer id from 0 to size - 1
+ * Hot path code can store per name data in arrays indexed by id instead of maps keyed by name
+ */
+
+public class NameIndex {
+
+    private final String[] fNames;
+    private final Map<String, Integer> fIds;
+    private final Set<String> fNameSet;
+
+    /**
+     * Duplicate names are only given one id
+     * @param names the names in the order their ids are assigned
+     */
+    public NameIndex(Collection<String> names) {
+        Set<String> nameSet = new LinkedHashSet<>(names);
+
+        fNames = nameSet.toArray(new String[0]);
+        fIds = new HashMap<>();
+        for (int id = 0; id < fNames.length; id++) {
+            fIds.put(fNames[id], id);
+        }
+        fNameSet = Collections.unmodifiableSet(nameSet);
+    }
+
+    /**
+     * @param name the name to look up
+     * @return the id of the name, or -1 if it is not in the index
+     */
+    public int getId(String name) {
+        Integer id = fIds.get(name);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * @param id the id of a name
+     * @return the name with the id
+     */
+    public String getName(int id) {
+        return fNames[id];
+    }
+
+    /**
+     * @param name the name to look for
+     * @return true if the name is in the index
+     */
+    public boolean contains(String name) {
+        return fIds.containsKey(name);
+    }
+
+    /**
+     * @return the number of names, one more than the largest id
+     */
+    public int size() {
+        return fNames.length;
+    }
+
+    /**
+     * @return the names in id order, the set can not be modified
+     */
+    public Set<String> getNames() {
+        return fNameSet;
+    }
+
+    @Override
+    public String toString() {
+        return fNameSet.toString();
+    }
+}
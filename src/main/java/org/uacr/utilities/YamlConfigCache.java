@@ -0,0 +1,279 @@
+package org.uacr.utilities;
+
+import org.uacr.utilities.logging.LogManager;
+import org.uacr.utilities.logging.Logger;
+import org.yaml.snakeyaml.Yaml;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parses each config file once for the whole process and shares the result between every YamlConfigParser
+ * Files are cached by resource path and robot variation, the variation overlay is applied once when the file is parsed
+ * The cached data is read only so every parser and Config can safely share it
+ * Files that are up to date in the config bundle are read from it instead of being parsed
+ * <p>
+ * Use reload to pick up changes to the config files while developing, the YamlConfigWatcher reloads files from disk as they are edited
+ */
+
+public class YamlConfigCache {
+
+    private static final Logger sLogger = LogManager.getLogger(YamlConfigCache.class);
+
+    private static final Map<List<Object>, CachedConfig> sConfigs = new ConcurrentHashMap<>();
+
+    /**
+     * Parsed on first use and cached, two threads loading the same file at the same time may both parse it but only one result is kept
+     *
+     * @param classLoader the class loader to find the file with
+     * @param path        the resource path of the config file
+     * @param variation   the robot variation to apply, "none" or "" for no variation
+     * @return the read only data of the file
+     */
+    public static CachedConfig get(ClassLoader classLoader, String path, String variation) {
+        List<Object> key = Arrays.asList(classLoader, path, variation);
+
+        CachedConfig config = sConfigs.get(key);
+        if (config == null) {
+            config = parse(classLoader, path, variation);
+            CachedConfig existing = sConfigs.putIfAbsent(key, config);
+            if (existing != null) {
+                config = existing;
+            }
+        }
+
+        return config;
+    }
+
+    /**
+     * Forgets every cached file so they are parsed again the next time they are loaded
+     * Parsers and Configs that were already created keep the data they were given
+     */
+    public static void reload() {
+        sLogger.debug("Reloading all config files");
+
+        sConfigs.clear();
+    }
+
+    /**
+     * Forgets every cached variation of a file so it is parsed again the next time it is loaded
+     *
+     * @param path the resource path of the config file
+     */
+    public static void reload(String path) {
+        sLogger.debug("Reloading config file '{}'", path);
+
+        sConfigs.keySet().removeIf(key -> key.get(1).equals(path));
+    }
+
+    /**
+     * Parses a config file from disk, such as one being edited while the robot runs, and replaces the cached copy
+     * Unlike loading from the classpath, a file that cannot be parsed throws instead of being treated as empty
+     *
+     * @param classLoader the class loader the file is cached under
+     * @param path        the resource path of the config file
+     * @param variation   the robot variation to apply, "none" or "" for no variation
+     * @param file        the file to parse
+     * @return the read only data of the file
+     * @throws IOException if the file cannot be read
+     */
+    public static CachedConfig reload(ClassLoader classLoader, String path, String variation, Path file) throws IOException {
+        sLogger.trace("Parsing config file '{}' with variation '{}' from {}", path, variation, file);
+
+        Map<String, Map<String, Object>> data;
+        try (InputStream in = Files.newInputStream(file)) {
+            data = new Yaml().load(in);
+        }
+
+        CachedConfig config = create(data, path, variation);
+        sConfigs.put(Arrays.asList(classLoader, path, variation), config);
+
+        return config;
+    }
+
+    /**
+     * Loads a yaml file, or its entry in the config bundle when it is up to date, applies the variation and makes the data read only
+     */
+    @SuppressWarnings("unchecked")
+    private static CachedConfig parse(ClassLoader classLoader, String path, String variation) {
+        ConfigBundle.BundledFile bundledFile = ConfigBundle.get(classLoader, path, variation);
+        if (bundledFile != null) {
+            sLogger.trace("Loaded config file '{}' with variation '{}' from the config bundle", path, variation);
+
+            return new CachedConfig((Map<String, Map<String, Object>>) freeze(bundledFile.getData()), Collections.unmodifiableMap(bundledFile.getNameTypes()));
+        }
+
+        sLogger.trace("Parsing config file '{}' with variation '{}'", path, variation);
+
+        Map<String, Map<String, Object>> data = null;
+        try {
+            data = new Yaml().load(classLoader.getResourceAsStream(path));
+        } catch (Throwable t) {
+            sLogger.error(t.getMessage());
+        }
+
+        return create(data, path, variation);
+    }
+
+    /**
+     * Applies the variation to parsed data and makes it read only
+     */
+    @SuppressWarnings("unchecked")
+    private static CachedConfig create(@Nullable Map<String, Map<String, Object>> data, String path, String variation) {
+        if (data == null) {
+            data = new HashMap<>();
+        }
+
+        Map<String, String> nameTypes = resolve(data, variation);
+
+        sLogger.trace("Parsed config file '{}'", path);
+
+        return new CachedConfig((Map<String, Map<String, Object>>) freeze(data), Collections.unmodifiableMap(nameTypes));
+    }
+
+    /**
+     * Applies the variation to the parsed data of a file and removes the variations from it
+     *
+     * @param data      the parsed data, which is changed in place
+     * @param variation the robot variation to apply, "none" or "" for no variation
+     * @return the type (category) each name is listed under
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, String> resolve(Map<String, Map<String, Object>> data, String variation) {
+        Map<String, String> nameTypes = new HashMap<>();
+
+        for (Map.Entry<String, Map<String, Object>> entry : data.entrySet()) {
+            if (entry.getValue() != null) {
+                for (String name : entry.getValue().keySet()) {
+                    if (!entry.getKey().equals("variations")) {
+                        nameTypes.put(name, entry.getKey());
+                    }
+                }
+            }
+        }
+
+        if (!variation.equals("") && data.containsKey("variations")) {
+            Map<String, Object> variationData = (Map<String, Object>) data.get("variations").get(variation);
+            if (variationData != null) {
+                loadVariation(data, variationData, new ArrayList<>());
+            }
+        }
+
+        data.remove("variations");
+
+        return nameTypes;
+    }
+
+    /**
+     * Finds the values listed in the variations and figures out the path to that value
+     * Then calls the editMapValueWithStack method to replace the value for this key in the data with the value from the variation
+     * This is a recursive function
+     * @param data the parsed data
+     * @param variation what variation to use
+     * @param stack an ArrayList to hold the path to a particular value so it can be retraced to find the value to replace
+     */
+    @SuppressWarnings("unchecked")
+    private static void loadVariation(Map data, Map<String, Object> variation, ArrayList<String> stack) {
+        for (Map.Entry<String, Object> entry : variation.entrySet()) {
+            if (entry.getValue() instanceof Map) {
+                stack.add(entry.getKey());
+                loadVariation(data, (Map<String, Object>) entry.getValue(), stack);
+                stack.remove(entry.getKey());
+            } else {
+                stack.add(entry.getKey());
+                editMapValueWithStack(data, (ArrayList<String>) stack.clone(), entry.getValue());
+                stack.remove(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Replaces a value in the data with one specified in the variation
+     * This is a recursive function
+     * @param data the parsed data
+     * @param stack the location of the value
+     * @param value the value to change it to
+     */
+    @SuppressWarnings("unchecked")
+    private static void editMapValueWithStack(Map data, ArrayList<String> stack, Object value) {
+        if (stack.size() <= 1) {
+            data.put(stack.get(0), value);
+            return;
+        }
+
+        String key = stack.get(0);
+        stack.remove(0);
+
+        editMapValueWithStack((Map) data.get(key), stack, value);
+    }
+
+    /**
+     * Copies maps and lists into unmodifiable ones, keeping their order
+     */
+    private static Object freeze(Object value) {
+        if (value instanceof Map) {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                map.put(entry.getKey(), entry.getValue() != null ? freeze(entry.getValue()) : null);
+            }
+            return Collections.unmodifiableMap(map);
+        }
+
+        if (value instanceof List) {
+            List<Object> list = new ArrayList<>();
+            for (Object element : (List<?>) value) {
+                list.add(element != null ? freeze(element) : null);
+            }
+            return Collections.unmodifiableList(list);
+        }
+
+        return value;
+    }
+
+    /**
+     * The read only data of one parsed config file
+     */
+    public static class CachedConfig {
+
+        private final Map<String, Map<String, Object>> fData;
+        private final Map<String, String> fNameTypes;
+
+        private CachedConfig(Map<String, Map<String, Object>> data, Map<String, String> nameTypes) {
+            fData = data;
+            fNameTypes = nameTypes;
+        }
+
+        /**
+         * @return the data of the file by type and then name
+         */
+        public Map<String, Map<String, Object>> getData() {
+            return fData;
+        }
+
+        /**
+         * @return the type (category) each name is listed under
+         */
+        public Map<String, String> getNameTypes() {
+            return fNameTypes;
+        }
+
+        /**
+         * @param name the name of an object in the file
+         * @return the data of the object, or null if the file does not have it
+         */
+        @Nullable
+        public Object getValue(String name) {
+            @Nullable
+            String type = fNameTypes.get(name);
+            if (type == null || fData.get(type) == null) {
+                return null;
+            }
+            return fData.get(type).get(name);
+        }
+    }
+}
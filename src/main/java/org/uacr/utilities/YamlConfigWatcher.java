@@ -0,0 +1,191 @@
+package org.uacr.utilities;
+
+import org.uacr.utilities.logging.LogManager;
+import org.uacr.utilities.logging.Logger;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a directory of config files while the robot runs, so values such as closed loop profiles can be tuned without restarting
+ * When a watched file is saved it is parsed on the watcher thread, compared to the previous version by name,
+ * and the listeners for the file are told which names changed
+ * <p>
+ * Only files directly in the directory are watched, their resource paths are their file names
+ */
+
+public class YamlConfigWatcher {
+
+    private static final Logger sLogger = LogManager.getLogger(YamlConfigWatcher.class);
+
+    // Editors often save a file with several writes, changes are collected for this long before reloading
+    private static final long SETTLE_TIME_MS = 100;
+
+    private static final Map<List<String>, Watch> sWatches = new ConcurrentHashMap<>();
+
+    @Nullable
+    private static WatchService sWatchService = null;
+
+    /**
+     * Starts watching a directory on a background thread, the previous directory is no longer watched
+     * @param directory the directory containing the yaml files
+     * @throws IOException if the directory cannot be watched
+     */
+    public static synchronized void start(Path directory) throws IOException {
+        stop();
+
+        WatchService watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+
+        sWatchService = watchService;
+
+        Thread thread = new Thread(() -> watch(watchService, directory), "YamlConfigWatcher");
+        thread.setDaemon(true);
+        thread.start();
+
+        sLogger.info("Watching config files in {}", directory);
+    }
+
+    /**
+     * Stops watching for changes, listeners stay registered for the next start
+     */
+    public static synchronized void stop() {
+        WatchService watchService = sWatchService;
+        if (watchService != null) {
+            sWatchService = null;
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                sLogger.error("Cannot close config watcher: {}", e);
+            }
+        }
+    }
+
+    /**
+     * @return whether a directory is being watched
+     */
+    public static synchronized boolean isRunning() {
+        return sWatchService != null;
+    }
+
+    /**
+     * Registers a listener for changes to a file, changes are compared to the data the file has in the YamlConfigCache now
+     * @param path the resource path of the file, such as "closed-loop-profiles.yaml"
+     * @param variation the robot variation the listener loaded the file with
+     * @param listener the listener to notify
+     */
+    public static void addListener(String path, String variation, ConfigChangeListener listener) {
+        sWatches.computeIfAbsent(Arrays.asList(path, variation), key -> new Watch(path, variation)).fListeners.add(listener);
+    }
+
+    /**
+     * @param path the resource path passed to addListener
+     * @param variation the variation passed to addListener
+     * @param listener the listener to remove
+     */
+    public static void removeListener(String path, String variation, ConfigChangeListener listener) {
+        @Nullable
+        Watch watch = sWatches.get(Arrays.asList(path, variation));
+        if (watch != null) {
+            watch.fListeners.remove(listener);
+        }
+    }
+
+    private static void watch(WatchService watchService, Path directory) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+
+                // Collects every file changed while the editor finishes saving
+                Set<String> changedFiles = new LinkedHashSet<>();
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.context() instanceof Path) {
+                            changedFiles.add(event.context().toString());
+                        }
+                    }
+                    key.reset();
+                    key = watchService.poll(SETTLE_TIME_MS, TimeUnit.MILLISECONDS);
+                }
+
+                for (String changedFile : changedFiles) {
+                    reload(directory, changedFile);
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            sLogger.debug("Stopped watching config files in {}", directory);
+        }
+    }
+
+    /**
+     * Parses every watched variation of a file and notifies the listeners of the names that changed
+     */
+    private static void reload(Path directory, String path) {
+        for (Watch watch : sWatches.values()) {
+            if (!watch.fPath.equals(path) || watch.fListeners.isEmpty()) {
+                continue;
+            }
+
+            YamlConfigCache.CachedConfig config;
+            try {
+                config = YamlConfigCache.reload(YamlConfigParser.class.getClassLoader(), path, watch.fVariation, directory.resolve(path));
+            } catch (IOException | RuntimeException e) {
+                sLogger.error("Cannot reload config file '{}', keeping the previous config: {}", path, e);
+                continue;
+            }
+
+            Set<String> changedNames = getChangedNames(watch.mConfig, config);
+            watch.mConfig = config;
+
+            if (changedNames.isEmpty()) {
+                continue;
+            }
+
+            sLogger.info("Reloaded config file '{}', changed {}", path, changedNames);
+
+            for (ConfigChangeListener listener : watch.fListeners) {
+                try {
+                    listener.onConfigChanged(config, changedNames);
+                } catch (RuntimeException e) {
+                    sLogger.error("Error applying changes to config file '{}': {}", path, e);
+                }
+            }
+        }
+    }
+
+    private static Set<String> getChangedNames(YamlConfigCache.CachedConfig previous, YamlConfigCache.CachedConfig current) {
+        Set<String> names = new HashSet<>(previous.getNameTypes().keySet());
+        names.addAll(current.getNameTypes().keySet());
+
+        Set<String> changedNames = new TreeSet<>();
+        for (String name : names) {
+            if (!Objects.equals(previous.getNameTypes().get(name), current.getNameTypes().get(name)) ||
+                    !Objects.equals(previous.getValue(name), current.getValue(name))) {
+                changedNames.add(name);
+            }
+        }
+        return changedNames;
+    }
+
+    private static class Watch {
+
+        private final String fPath;
+        private final String fVariation;
+        private final List<ConfigChangeListener> fListeners;
+
+        // Only used by the watcher thread after it is created
+        private YamlConfigCache.CachedConfig mConfig;
+
+        private Watch(String path, String variation) {
+            fPath = path;
+            fVariation = variation;
+            fListeners = new CopyOnWriteArrayList<>();
+            mConfig = YamlConfigCache.get(YamlConfigParser.class.getClassLoader(), path, variation);
+        }
+    }
+}
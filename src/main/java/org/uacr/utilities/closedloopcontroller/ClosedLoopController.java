@@ -2,14 +2,33 @@ package org.uacr.utilities.closedloopcontroller;
 
 import org.uacr.models.exceptions.ConfigurationInvalidTypeException;
 import org.uacr.utilities.Config;
+import org.uacr.utilities.ConfigChangeListener;
+import org.uacr.utilities.YamlConfigCache;
 import org.uacr.utilities.YamlConfigParser;
+import org.uacr.utilities.YamlConfigWatcher;
+import org.uacr.utilities.logging.LogManager;
+import org.uacr.utilities.logging.Logger;
 
 import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+
+/**
+ * A PID controller with feed forward, the constants come from named profiles in closed-loop-profiles.yaml
+ * When the YamlConfigWatcher is running, edited profiles are swapped in without interrupting the controller,
+ * each calculation reads the current profile once so it never mixes values from two profiles
+ * The watcher only holds controllers weakly, so controllers that are no longer used can still be garbage collected
+ */
 
 public class ClosedLoopController {
 
+    private static final Logger sLogger = LogManager.getLogger(ClosedLoopController.class);
+
+    private static final String PROFILES_PATH = "closed-loop-profiles.yaml";
+
     private static final Map<String, Double> sProfileDefaults = new HashMap<>();
 
     static {
@@ -21,9 +40,13 @@ public class ClosedLoopController {
     private final YamlConfigParser fYamlConfigParser;
     private final String fType;
     private final String fName;
-    private final Map<String, ClosedLoopControllerProfile> fProfiles = new HashMap<>();
+    // The name as it is stored by the YamlConfigParser, which lowercases names
+    private final String fConfigName;
+    private volatile Map<String, ClosedLoopControllerProfile> mProfiles;
+    @Nullable
+    private String mCurrentProfileName;
     @Nullable
-    private ClosedLoopControllerProfile mCurrentClosedLoopControllerProfile;
+    private volatile ClosedLoopControllerProfile mCurrentClosedLoopControllerProfile;
     private double mSetpoint = 0.0;
     private double mIntegral = 0.0;
     private double mPreviousError = 0.0;
@@ -31,11 +54,22 @@ public class ClosedLoopController {
 
     public ClosedLoopController(String name) {
         fName = name;
+        fConfigName = name.toLowerCase();
         fYamlConfigParser = new YamlConfigParser();
-        fYamlConfigParser.loadWithFolderName("closed-loop-profiles.yaml");
+        fYamlConfigParser.loadWithFolderName(PROFILES_PATH);
 
         Config config = fYamlConfigParser.getConfig(name);
         fType = config.getType();
+        mProfiles = createProfiles(config);
+        mCurrentProfileName = null;
+        mCurrentClosedLoopControllerProfile = null;
+
+        if (YamlConfigWatcher.isRunning()) {
+            YamlConfigWatcher.addListener(PROFILES_PATH, fYamlConfigParser.getRobotVariation(), new ProfilesListener(this, fYamlConfigParser.getRobotVariation()));
+        }
+    }
+
+    private static Map<String, ClosedLoopControllerProfile> createProfiles(Config config) {
         Object configProfiles = config.get("profiles");
 
         if (!(configProfiles instanceof Map)) {
@@ -44,21 +78,61 @@ public class ClosedLoopController {
 
         Map<String, Map<String, Double>> pidProfiles = (Map<String, Map<String, Double>>) configProfiles;
 
+        Map<String, ClosedLoopControllerProfile> profiles = new HashMap<>();
         for (Map.Entry<String, Map<String, Double>> profile : pidProfiles.entrySet()) {
             Map<String, Double> PIDValues = new HashMap<>(sProfileDefaults);
             for (Map.Entry<String, Double> parameter : pidProfiles.get(profile.getKey()).entrySet()) {
                 PIDValues.put(parameter.getKey(), parameter.getValue());
             }
-            fProfiles.put(profile.getKey(), new ClosedLoopControllerProfile(profile.getKey(), PIDValues));
+            profiles.put(profile.getKey(), new ClosedLoopControllerProfile(profile.getKey(), PIDValues));
+        }
+
+        return Collections.unmodifiableMap(profiles);
+    }
+
+    /**
+     * Builds the edited profiles on the watcher thread and swaps them in, the old profiles are kept if the new ones are invalid
+     */
+    private synchronized void onProfilesChanged(YamlConfigCache.CachedConfig config, Set<String> changedNames) {
+        if (!changedNames.contains(fConfigName)) {
+            return;
+        }
+
+        @Nullable
+        Object data = config.getValue(fConfigName);
+        if (!(data instanceof Map)) {
+            sLogger.error("Closed loop controller '{}' was removed from the config, keeping its profiles", fName);
+            return;
+        }
+
+        Map<String, ClosedLoopControllerProfile> profiles;
+        try {
+            profiles = createProfiles(new Config(fType, (Map) data));
+        } catch (RuntimeException e) {
+            sLogger.error("Invalid profiles for closed loop controller '{}', keeping the previous profiles: {}", fName, e.getMessage());
+            return;
+        }
+
+        if (mCurrentProfileName != null && !profiles.containsKey(mCurrentProfileName)) {
+            sLogger.error("Closed loop controller '{}' no longer has the current profile '{}', keeping the previous profiles", fName, mCurrentProfileName);
+            return;
+        }
+
+        mProfiles = profiles;
+        if (mCurrentProfileName != null) {
+            mCurrentClosedLoopControllerProfile = profiles.get(mCurrentProfileName);
         }
 
+        sLogger.info("Reloaded profiles for closed loop controller '{}'", fName);
     }
 
-    public void setProfile(String name) {
-        if (!fProfiles.containsKey(name)) {
+    public synchronized void setProfile(String name) {
+        Map<String, ClosedLoopControllerProfile> profiles = mProfiles;
+        if (!profiles.containsKey(name)) {
             throw new RuntimeException(fName + "does not contain a profile named '" + name + "'");
         }
-        mCurrentClosedLoopControllerProfile = fProfiles.get(name);
+        mCurrentProfileName = name;
+        mCurrentClosedLoopControllerProfile = profiles.get(name);
     }
 
     public void set(double setpoint) {
@@ -84,7 +158,13 @@ public class ClosedLoopController {
     }
 
     public double getWithPID(double measuredValue) {
-        assert mCurrentClosedLoopControllerProfile != null;
+        ClosedLoopControllerProfile profile = mCurrentClosedLoopControllerProfile;
+        assert profile != null;
+        return getWithPID(profile, measuredValue);
+    }
+
+    // Takes the profile read by the caller so a reload cannot swap it part way through a calculation
+    private double getWithPID(ClosedLoopControllerProfile profile, double measuredValue) {
         long time = System.currentTimeMillis();
 
         if (mPreviousTime == -1) {
@@ -95,16 +175,16 @@ public class ClosedLoopController {
 
         double error = mSetpoint - measuredValue;
 
-        boolean insideIntegralRange = (mCurrentClosedLoopControllerProfile.getIntegralRange() == -1 || Math.abs(error) <= mCurrentClosedLoopControllerProfile.getIntegralRange());
+        boolean insideIntegralRange = (profile.getIntegralRange() == -1 || Math.abs(error) <= profile.getIntegralRange());
 
         if (insideIntegralRange) {
             mIntegral += deltaTime * error;
 
-            if (mCurrentClosedLoopControllerProfile.getMaxIntegral() != -1) {
+            if (profile.getMaxIntegral() != -1) {
                 if (mIntegral < 0.0) {
-                    mIntegral = Math.max(mIntegral, -mCurrentClosedLoopControllerProfile.getMaxIntegral());
+                    mIntegral = Math.max(mIntegral, -profile.getMaxIntegral());
                 } else {
-                    mIntegral = Math.min(mIntegral, mCurrentClosedLoopControllerProfile.getMaxIntegral());
+                    mIntegral = Math.min(mIntegral, profile.getMaxIntegral());
                 }
             }
         } else {
@@ -118,30 +198,57 @@ public class ClosedLoopController {
             //	sLogger.warn("Derivative is at max value (no delta time) and will be multiplied by {}", fCurrentProfile.d);
         }
 
-        double p = mCurrentClosedLoopControllerProfile.getP() * error;
-        double i = mCurrentClosedLoopControllerProfile.getI() * mIntegral;
-        double d = mCurrentClosedLoopControllerProfile.getD() * derivative;
+        double p = profile.getP() * error;
+        double i = profile.getI() * mIntegral;
+        double d = profile.getD() * derivative;
 
-        double output = mCurrentClosedLoopControllerProfile.getF() * mSetpoint + p + i + d + mCurrentClosedLoopControllerProfile.getIdleOutput();
+        double output = profile.getF() * mSetpoint + p + i + d + profile.getIdleOutput();
 
         mPreviousTime = time;
         mPreviousError = error;
 
-        if (mCurrentClosedLoopControllerProfile.hasForceCompensation()) {
-            return Math.signum(output) * Math.min(Math.abs(output), mCurrentClosedLoopControllerProfile.getMaxOutput()) + (mCurrentClosedLoopControllerProfile.getKForceCompensation() * Math.sin(measuredValue));
+        if (profile.hasForceCompensation()) {
+            return Math.signum(output) * Math.min(Math.abs(output), profile.getMaxOutput()) + (profile.getKForceCompensation() * Math.sin(measuredValue));
         } else {
-            return Math.signum(output) * Math.min(Math.abs(output), mCurrentClosedLoopControllerProfile.getMaxOutput());
+            return Math.signum(output) * Math.min(Math.abs(output), profile.getMaxOutput());
         }
     }
 
     public double get(double measuredValue, double acceleration) {
-        assert mCurrentClosedLoopControllerProfile != null;
-        if (!mCurrentClosedLoopControllerProfile.hasFeedForward()) {
+        ClosedLoopControllerProfile profile = mCurrentClosedLoopControllerProfile;
+        assert profile != null;
+        if (!profile.hasFeedForward()) {
             throw new RuntimeException("The profile provided must include feedforward constants 'ka' and 'kv'");
         }
 
-        double pidValue = getWithPID(measuredValue);
-        return mCurrentClosedLoopControllerProfile.getKv() * getSetpoint() + mCurrentClosedLoopControllerProfile.getka() * acceleration + pidValue;
+        double pidValue = getWithPID(profile, measuredValue);
+        return profile.getKv() * getSetpoint() + profile.getka() * acceleration + pidValue;
     }
 
-}
\ No newline at end of file
+    /**
+     * Passes profile changes to a controller without keeping it from being garbage collected
+     * Removes itself from the watcher once the controller has been collected
+     */
+    private static class ProfilesListener implements ConfigChangeListener {
+
+        private final WeakReference<ClosedLoopController> fController;
+        private final String fVariation;
+
+        private ProfilesListener(ClosedLoopController controller, String variation) {
+            fController = new WeakReference<>(controller);
+            fVariation = variation;
+        }
+
+        @Override
+        public void onConfigChanged(YamlConfigCache.CachedConfig config, Set<String> changedNames) {
+            @Nullable
+            ClosedLoopController controller = fController.get();
+            if (controller == null) {
+                YamlConfigWatcher.removeListener(PROFILES_PATH, fVariation, this);
+                return;
+            }
+
+            controller.onProfilesChanged(config, changedNames);
+        }
+    }
+}
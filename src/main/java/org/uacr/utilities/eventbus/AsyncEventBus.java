@@ -1,55 +1,36 @@
 package org.uacr.utilities.eventbus;
 
-import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
 import java.util.concurrent.Executor;
 
+/**
+ * Delivers each event to its subscribers on the executor
+ * Subscribers are looked up in a table built at register time and called through method handles instead of reflection
+ */
+
 public class AsyncEventBus extends AbstractEventBus {
 
     private final Executor fExecutor;
-    private final Set<Object> fListeners;
+    private final SubscriberRegistry fRegistry;
 
     public AsyncEventBus(Executor executor) {
         fExecutor = executor;
-        fListeners = Collections.synchronizedSet(new HashSet<>());
+        fRegistry = new SubscriberRegistry();
     }
 
     @Override
     public void register(Object listener) {
-        fListeners.add(listener);
+        fRegistry.register(listener);
     }
 
     @Override
     public void unregister(Object listener) {
-        fListeners.remove(listener);
+        fRegistry.unregister(listener);
     }
 
     @Override
     public void post(Object event) {
-        for (Object listener : fListeners) {
-            for (Method method : listener.getClass().getMethods()) {
-                Class[] parameters = method.getParameterTypes();
-                if (parameters.length == 1 && parameters[0].equals(event.getClass())) {
-                    for (Annotation annotation : method.getDeclaredAnnotations()) {
-                        if (annotation.annotationType().equals(Subscribe.class)) {
-                            fExecutor.execute(() -> {
-                                try {
-                                    method.invoke(listener, event);
-                                } catch (IllegalAccessException e) {
-                                    e.printStackTrace();
-                                } catch (InvocationTargetException e) {
-                                    e.getCause().printStackTrace();
-                                }
-                            });
-                            break;
-                        }
-                    }
-                }
-            }
+        for (Subscriber subscriber : fRegistry.getSubscribers(event.getClass())) {
+            fExecutor.execute(() -> subscriber.dispatch(event));
         }
     }
 }
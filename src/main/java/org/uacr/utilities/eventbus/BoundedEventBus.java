@@ -0,0 +1,373 @@
+package org.uacr.utilities.eventbus;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Delivers events on the executor through a bounded mailbox for each listener
+ * A mailbox is drained by at most one task at a time, so every listener receives its events in the order they were posted,
+ * and the overflow policy decides what happens when a listener falls behind
+ */
+
+public class BoundedEventBus extends AbstractEventBus {
+
+    // The most events delivered by one drain task before it gives the executor thread to another mailbox
+    private static final int DRAIN_BATCH_SIZE = 64;
+
+    private final Executor fExecutor;
+    private final int fCapacity;
+    private final OverflowPolicy fOverflowPolicy;
+    private final SubscriberRegistry fRegistry;
+    private final Map<Object, Mailbox> fMailboxes;
+    private final Map<Class<?>, Function<Object, ?>> fCoalescingKeys;
+
+    /**
+     * @param executor       the executor that delivers events
+     * @param capacity       the most events that can wait in the mailbox of a single listener
+     * @param overflowPolicy what to do with an event posted to a full mailbox
+     */
+    public BoundedEventBus(Executor executor, int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Mailbox capacity must be at least 1");
+        }
+
+        fExecutor = executor;
+        fCapacity = capacity;
+        fOverflowPolicy = overflowPolicy;
+        fRegistry = new SubscriberRegistry();
+        fMailboxes = new ConcurrentHashMap<>();
+        fCoalescingKeys = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Sets the key used to coalesce events of a type and its subtypes when the overflow policy is COALESCE
+     * An event that is posted while an event with the same key is still waiting replaces the waiting event
+     *
+     * @param eventType the class of the event
+     * @param key       returns the key of an event, events with a null key are never coalesced
+     * @param <T>       the type of the event
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void setCoalescingKey(Class<T> eventType, Function<? super T, ?> key) {
+        fCoalescingKeys.put(eventType, (Function<Object, ?>) key);
+    }
+
+    @Override
+    public void register(Object listener) {
+        if (fRegistry.register(listener)) {
+            fMailboxes.put(listener, new Mailbox(listener));
+        }
+    }
+
+    /**
+     * Events still waiting in the mailbox of the listener are discarded
+     */
+    @Override
+    public void unregister(Object listener) {
+        if (fRegistry.unregister(listener)) {
+            Mailbox mailbox = fMailboxes.remove(listener);
+            if (mailbox != null) {
+                mailbox.close();
+            }
+        }
+    }
+
+    /**
+     * With the BLOCK policy this waits until there is room in every mailbox, so it must not be called from a subscriber of this bus
+     */
+    @Override
+    public void post(Object event) {
+        Subscriber[] subscribers = fRegistry.getSubscribers(event.getClass());
+        if (subscribers.length == 0) {
+            return;
+        }
+
+        Function<Object, ?> coalescingKey = fOverflowPolicy == OverflowPolicy.COALESCE ? getCoalescingKey(event.getClass()) : null;
+        Object key = coalescingKey != null ? coalescingKey.apply(event) : null;
+
+        long postTime = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            Mailbox mailbox = fMailboxes.get(subscriber.getListener());
+            if (mailbox != null) {
+                mailbox.offer(new Envelope(subscriber, event, key, postTime));
+            }
+        }
+    }
+
+    /**
+     * @param eventType the class of the posted event
+     * @return the coalescing key set for the closest type in the class hierarchy of the event, null if there is none
+     */
+    @Nullable
+    private Function<Object, ?> getCoalescingKey(Class<?> eventType) {
+        for (Class<?> type : SubscriberRegistry.getTypeHierarchy(eventType)) {
+            Function<Object, ?> key = fCoalescingKeys.get(type);
+            if (key != null) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return a snapshot of the metrics of every listener's mailbox
+     */
+    public List<MailboxMetrics> getMetrics() {
+        List<MailboxMetrics> metrics = new ArrayList<>();
+        for (Mailbox mailbox : fMailboxes.values()) {
+            metrics.add(mailbox.getMetrics());
+        }
+        return metrics;
+    }
+
+    /**
+     * What to do with an event posted to a full mailbox
+     */
+    public enum OverflowPolicy {
+        // Discard the event that has waited the longest to make room
+        DROP_OLDEST,
+        // Discard the event being posted
+        DROP_NEWEST,
+        // Wait on the posting thread until there is room
+        BLOCK,
+        // Replace a waiting event with the same coalescing key, otherwise discard the event that has waited the longest
+        COALESCE
+    }
+
+    /**
+     * A snapshot of the state of one listener's mailbox
+     */
+    public static class MailboxMetrics {
+
+        private final String fListener;
+        private final int fDepth;
+        private final int fMaxDepth;
+        private final long fDelivered;
+        private final long fDropped;
+        private final long fCoalesced;
+        private final long fLastLagNanos;
+        private final long fMaxLagNanos;
+
+        private MailboxMetrics(String listener, int depth, int maxDepth, long delivered, long dropped, long coalesced, long lastLagNanos, long maxLagNanos) {
+            fListener = listener;
+            fDepth = depth;
+            fMaxDepth = maxDepth;
+            fDelivered = delivered;
+            fDropped = dropped;
+            fCoalesced = coalesced;
+            fLastLagNanos = lastLagNanos;
+            fMaxLagNanos = maxLagNanos;
+        }
+
+        /**
+         * @return the name of the listener
+         */
+        public String getListener() {
+            return fListener;
+        }
+
+        /**
+         * @return the number of events waiting to be delivered
+         */
+        public int getDepth() {
+            return fDepth;
+        }
+
+        /**
+         * @return the most events that have been waiting at once
+         */
+        public int getMaxDepth() {
+            return fMaxDepth;
+        }
+
+        /**
+         * @return the number of events delivered to the listener
+         */
+        public long getDelivered() {
+            return fDelivered;
+        }
+
+        /**
+         * @return the number of events discarded because the mailbox was full
+         */
+        public long getDropped() {
+            return fDropped;
+        }
+
+        /**
+         * @return the number of events replaced by a newer event with the same coalescing key
+         */
+        public long getCoalesced() {
+            return fCoalesced;
+        }
+
+        /**
+         * @return the time in milliseconds between posting and delivery of the last delivered event
+         */
+        public double getLastLagMs() {
+            return fLastLagNanos / 1000000.0;
+        }
+
+        /**
+         * @return the longest time in milliseconds between posting and delivery of an event
+         */
+        public double getMaxLagMs() {
+            return fMaxLagNanos / 1000000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: depth %d (max %d), delivered %d, dropped %d, coalesced %d, lag %.3f ms (max %.3f ms)",
+                    fListener, fDepth, fMaxDepth, fDelivered, fDropped, fCoalesced, getLastLagMs(), getMaxLagMs());
+        }
+    }
+
+    /**
+     * An event waiting to be delivered to one subscriber
+     */
+    private static class Envelope {
+
+        private final Subscriber fSubscriber;
+        private final Object fKey;
+        private final long fPostTime;
+
+        private Object mEvent;
+
+        private Envelope(Subscriber subscriber, Object event, @Nullable Object key, long postTime) {
+            fSubscriber = subscriber;
+            fKey = key;
+            fPostTime = postTime;
+            mEvent = event;
+        }
+    }
+
+    /**
+     * The events waiting for one listener, drained by at most one executor task at a time
+     */
+    private class Mailbox implements Runnable {
+
+        private final Object fListener;
+        private final ArrayDeque<Envelope> fQueue;
+        // Waiting envelopes by subscriber and coalescing key
+        private final Map<List<Object>, Envelope> fCoalescable;
+
+        private boolean mScheduled;
+        private boolean mClosed;
+        private int mMaxDepth;
+        private long mDelivered;
+        private long mDropped;
+        private long mCoalesced;
+        private long mLastLagNanos;
+        private long mMaxLagNanos;
+
+        private Mailbox(Object listener) {
+            fListener = listener;
+            fQueue = new ArrayDeque<>();
+            fCoalescable = new HashMap<>();
+        }
+
+        private synchronized void offer(Envelope envelope) {
+            if (mClosed) {
+                return;
+            }
+
+            if (envelope.fKey != null) {
+                Envelope waiting = fCoalescable.get(Arrays.asList(envelope.fSubscriber, envelope.fKey));
+                if (waiting != null) {
+                    waiting.mEvent = envelope.mEvent;
+                    mCoalesced++;
+                    return;
+                }
+            }
+
+            if (fQueue.size() >= fCapacity) {
+                switch (fOverflowPolicy) {
+                    case DROP_NEWEST:
+                        mDropped++;
+                        return;
+                    case BLOCK:
+                        while (fQueue.size() >= fCapacity && !mClosed) {
+                            try {
+                                wait();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                mDropped++;
+                                return;
+                            }
+                        }
+                        if (mClosed) {
+                            return;
+                        }
+                        break;
+                    default:
+                        removeKey(fQueue.poll());
+                        mDropped++;
+                        break;
+                }
+            }
+
+            fQueue.add(envelope);
+            if (envelope.fKey != null) {
+                fCoalescable.put(Arrays.asList(envelope.fSubscriber, envelope.fKey), envelope);
+            }
+            mMaxDepth = Math.max(mMaxDepth, fQueue.size());
+
+            if (!mScheduled) {
+                mScheduled = true;
+                fExecutor.execute(this);
+            }
+        }
+
+        /**
+         * Delivers waiting events, rescheduling itself if events are still waiting after a batch
+         */
+        @Override
+        public void run() {
+            for (int e = 0; e < DRAIN_BATCH_SIZE; e++) {
+                Envelope envelope;
+                Object event;
+                synchronized (this) {
+                    envelope = fQueue.poll();
+                    if (envelope == null) {
+                        mScheduled = false;
+                        return;
+                    }
+                    removeKey(envelope);
+                    // Read the event while holding the lock since it can be replaced until the envelope is removed
+                    event = envelope.mEvent;
+                    notifyAll();
+                }
+
+                envelope.fSubscriber.dispatch(event);
+
+                synchronized (this) {
+                    mDelivered++;
+                    mLastLagNanos = System.nanoTime() - envelope.fPostTime;
+                    mMaxLagNanos = Math.max(mMaxLagNanos, mLastLagNanos);
+                }
+            }
+
+            fExecutor.execute(this);
+        }
+
+        private synchronized void close() {
+            mClosed = true;
+            fQueue.clear();
+            fCoalescable.clear();
+            notifyAll();
+        }
+
+        private synchronized MailboxMetrics getMetrics() {
+            return new MailboxMetrics(fListener.getClass().getSimpleName(), fQueue.size(), mMaxDepth, mDelivered, mDropped, mCoalesced, mLastLagNanos, mMaxLagNanos);
+        }
+
+        private void removeKey(Envelope envelope) {
+            if (envelope.fKey != null) {
+                fCoalescable.remove(Arrays.asList(envelope.fSubscriber, envelope.fKey));
+            }
+        }
+    }
+}
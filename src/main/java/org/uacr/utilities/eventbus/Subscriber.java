@@ -0,0 +1,54 @@
+package org.uacr.utilities.eventbus;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * A single @Subscribe method bound to the listener it belongs to
+ * Created once when the listener registers so posting an event never needs reflection
+ */
+
+public class Subscriber {
+
+    private final Object fListener;
+    private final Class<?> fEventType;
+    private final MethodHandle fHandle;
+
+    /**
+     * @param listener  the registered listener
+     * @param eventType the parameter type of the subscribe method
+     * @param handle    the subscribe method bound to the listener with the type (Object)void
+     */
+    Subscriber(Object listener, Class<?> eventType, MethodHandle handle) {
+        fListener = listener;
+        fEventType = eventType;
+        fHandle = handle;
+    }
+
+    /**
+     * @return the listener that this subscriber calls
+     */
+    public Object getListener() {
+        return fListener;
+    }
+
+    /**
+     * @return the event type the subscribe method accepts
+     */
+    public Class<?> getEventType() {
+        return fEventType;
+    }
+
+    /**
+     * Calls the subscribe method on the calling thread
+     * Exceptions thrown by the listener are printed so one bad listener can not stop an event from reaching the others
+     *
+     * @param event the event to pass to the listener
+     */
+    public void dispatch(Object event) {
+        try {
+            fHandle.invokeExact(event);
+        } catch (Throwable t) {
+            t.printStackTrace();
+        }
+    }
+}
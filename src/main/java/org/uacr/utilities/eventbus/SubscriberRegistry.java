@@ -0,0 +1,211 @@
+package org.uacr.utilities.eventbus;
+
+import org.uacr.utilities.logging.LogManager;
+import org.uacr.utilities.logging.Logger;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a table of subscribers for each event type
+ * A subscriber receives events of its parameter type and of every subclass or implementation of it
+ * The subscribers of a concrete event type are resolved over its class hierarchy the first time it is posted and cached
+ * until a listener registers or unregisters, so looking up the subscribers of an event is a single map read
+ */
+
+public class SubscriberRegistry {
+
+    private static final Logger sLogger = LogManager.getLogger(SubscriberRegistry.class);
+
+    private static final Subscriber[] NO_SUBSCRIBERS = new Subscriber[0];
+
+    // The @Subscribe methods of each listener class, shared between every registry since they never change
+    private static final Map<Class<?>, List<SubscribeMethod>> sSubscribeMethods = new ConcurrentHashMap<>();
+    // The flattened superclasses and interfaces of each event class
+    private static final Map<Class<?>, List<Class<?>>> sTypeHierarchies = new ConcurrentHashMap<>();
+
+    private final Map<Object, List<Subscriber>> fListeners;
+    // Subscribers by the parameter type of their subscribe method
+    private final Map<Class<?>, Subscriber[]> fSubscribers;
+    // Subscribers by concrete event type, including the subscribers of its supertypes
+    private final Map<Class<?>, Subscriber[]> fDispatchTable;
+
+    public SubscriberRegistry() {
+        fListeners = new HashMap<>();
+        fSubscribers = new HashMap<>();
+        fDispatchTable = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Binds every @Subscribe method of the listener and adds them to the subscriber table
+     *
+     * @param listener the listener to register
+     * @return false if the listener was already registered
+     */
+    public synchronized boolean register(Object listener) {
+        if (fListeners.containsKey(listener)) {
+            return false;
+        }
+
+        List<Subscriber> subscribers = new ArrayList<>();
+        for (SubscribeMethod method : getSubscribeMethods(listener.getClass())) {
+            MethodHandle handle = method.fHandle.bindTo(listener).asType(MethodType.methodType(void.class, Object.class));
+            subscribers.add(new Subscriber(listener, method.fEventType, handle));
+        }
+
+        fListeners.put(listener, subscribers);
+
+        for (Subscriber subscriber : subscribers) {
+            addSubscriber(subscriber);
+        }
+        fDispatchTable.clear();
+
+        return true;
+    }
+
+    /**
+     * Removes every subscriber of the listener from the subscriber table
+     *
+     * @param listener the listener to unregister
+     * @return false if the listener was not registered
+     */
+    public synchronized boolean unregister(Object listener) {
+        List<Subscriber> subscribers = fListeners.remove(listener);
+        if (subscribers == null) {
+            return false;
+        }
+
+        for (Subscriber subscriber : subscribers) {
+            removeSubscriber(subscriber);
+        }
+        fDispatchTable.clear();
+
+        return true;
+    }
+
+    /**
+     * Does not allocate once the event type has been posted, the returned array must not be modified
+     *
+     * @param eventType the class of the posted event
+     * @return the subscribers for the event type and all of its supertypes
+     */
+    public Subscriber[] getSubscribers(Class<?> eventType) {
+        Subscriber[] subscribers = fDispatchTable.get(eventType);
+        return subscribers != null ? subscribers : resolveSubscribers(eventType);
+    }
+
+    /**
+     * The event class comes first, followed by its superclasses and then its interfaces
+     *
+     * @param eventType the class of an event
+     * @return the event class and every class and interface it extends or implements
+     */
+    public static List<Class<?>> getTypeHierarchy(Class<?> eventType) {
+        return sTypeHierarchies.computeIfAbsent(eventType, type -> {
+            Set<Class<?>> hierarchy = new LinkedHashSet<>();
+            for (Class<?> superclass = type; superclass != null; superclass = superclass.getSuperclass()) {
+                hierarchy.add(superclass);
+            }
+            for (Class<?> superclass = type; superclass != null; superclass = superclass.getSuperclass()) {
+                addInterfaces(superclass, hierarchy);
+            }
+            return Collections.unmodifiableList(new ArrayList<>(hierarchy));
+        });
+    }
+
+    /**
+     * @return the listeners that are currently registered
+     */
+    public synchronized Set<Object> getListeners() {
+        return new HashSet<>(fListeners.keySet());
+    }
+
+    /**
+     * Builds the dispatch table entry of an event type
+     * Holds the registry lock so an entry can not be built from a table that is being changed
+     */
+    private synchronized Subscriber[] resolveSubscribers(Class<?> eventType) {
+        List<Subscriber> subscribers = new ArrayList<>();
+        for (Class<?> type : getTypeHierarchy(eventType)) {
+            Subscriber[] typeSubscribers = fSubscribers.get(type);
+            if (typeSubscribers != null) {
+                subscribers.addAll(Arrays.asList(typeSubscribers));
+            }
+        }
+
+        Subscriber[] resolved = subscribers.isEmpty() ? NO_SUBSCRIBERS : subscribers.toArray(NO_SUBSCRIBERS);
+        fDispatchTable.put(eventType, resolved);
+        return resolved;
+    }
+
+    private static void addInterfaces(Class<?> type, Set<Class<?>> hierarchy) {
+        for (Class<?> implemented : type.getInterfaces()) {
+            if (hierarchy.add(implemented)) {
+                addInterfaces(implemented, hierarchy);
+            }
+        }
+    }
+
+    private void addSubscriber(Subscriber subscriber) {
+        Subscriber[] subscribers = fSubscribers.getOrDefault(subscriber.getEventType(), NO_SUBSCRIBERS);
+        Subscriber[] updated = Arrays.copyOf(subscribers, subscribers.length + 1);
+        updated[subscribers.length] = subscriber;
+        fSubscribers.put(subscriber.getEventType(), updated);
+    }
+
+    private void removeSubscriber(Subscriber subscriber) {
+        List<Subscriber> subscribers = new ArrayList<>(Arrays.asList(fSubscribers.getOrDefault(subscriber.getEventType(), NO_SUBSCRIBERS)));
+        subscribers.remove(subscriber);
+
+        if (subscribers.isEmpty()) {
+            fSubscribers.remove(subscriber.getEventType());
+        } else {
+            fSubscribers.put(subscriber.getEventType(), subscribers.toArray(NO_SUBSCRIBERS));
+        }
+    }
+
+    /**
+     * Finds the public single parameter methods of a listener class annotated with @Subscribe, only scanning each class once
+     *
+     * @param listenerClass the class of the listener
+     * @return the subscribe methods of the class
+     */
+    private static List<SubscribeMethod> getSubscribeMethods(Class<?> listenerClass) {
+        return sSubscribeMethods.computeIfAbsent(listenerClass, tClass -> {
+            List<SubscribeMethod> methods = new ArrayList<>();
+
+            for (Method method : tClass.getMethods()) {
+                if (method.getParameterTypes().length != 1 || !method.isAnnotationPresent(Subscribe.class)) {
+                    continue;
+                }
+
+                try {
+                    method.setAccessible(true);
+                    methods.add(new SubscribeMethod(method.getParameterTypes()[0], MethodHandles.lookup().unreflect(method)));
+                } catch (Exception e) {
+                    sLogger.error("Cannot subscribe {}.{}: {}", tClass.getSimpleName(), method.getName(), e);
+                }
+            }
+
+            return methods;
+        });
+    }
+
+    /**
+     * An unbound subscribe method of a listener class
+     */
+    private static class SubscribeMethod {
+
+        private final Class<?> fEventType;
+        private final MethodHandle fHandle;
+
+        private SubscribeMethod(Class<?> eventType, MethodHandle handle) {
+            fEventType = eventType;
+            fHandle = handle;
+        }
+    }
+}
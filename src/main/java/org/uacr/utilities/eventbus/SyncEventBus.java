@@ -0,0 +1,32 @@
+package org.uacr.utilities.eventbus;
+
+/**
+ * Delivers each event to its subscribers on the posting thread, in the order they registered
+ * Posting does not allocate, post returns once every subscriber has handled the event
+ */
+
+public class SyncEventBus extends AbstractEventBus {
+
+    private final SubscriberRegistry fRegistry;
+
+    public SyncEventBus() {
+        fRegistry = new SubscriberRegistry();
+    }
+
+    @Override
+    public void register(Object listener) {
+        fRegistry.register(listener);
+    }
+
+    @Override
+    public void unregister(Object listener) {
+        fRegistry.unregister(listener);
+    }
+
+    @Override
+    public void post(Object event) {
+        for (Subscriber subscriber : fRegistry.getSubscribers(event.getClass())) {
+            subscriber.dispatch(event);
+        }
+    }
+}
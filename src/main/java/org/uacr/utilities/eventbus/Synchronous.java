@@ -0,0 +1,17 @@
+package org.uacr.utilities.eventbus;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marks an event type that should be delivered on the posting thread by the SharedEventBus
+ * so it is observed within the same frame it is posted in
+ */
+
+@Target(ElementType.TYPE)
+@Retention(RUNTIME)
+public @interface Synchronous {
+}
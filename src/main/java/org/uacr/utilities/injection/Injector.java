@@ -2,18 +2,34 @@ package org.uacr.utilities.injection;
 
 import javax.annotation.Nullable;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Proxy;
-import java.util.HashMap;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * Handles constructing services in Sim and Robot mode
+ * The constructor and parameter sources of each class are worked out on the first getInstance and reused after that,
+ * and the singleton each requested class resolves to is remembered, the caches are cleared whenever a singleton is added
+ * <p>
+ * Construction has two phases, constructors are called first and then fields and methods annotated with @Inject are set,
+ * for singletons that happens once every singleton exists so they can depend on each other through their fields and methods
+ * When a singleton's constructor needs an object whose constructor needs the singleton back, that object is given null
+ * and the field it stores the parameter in is set as soon as the singleton is created, so it must not use the singleton in its constructor
  */
 
 public class Injector {
 
+    // Stored in the singleton index for classes that are not a singleton, since the map cannot hold null
+    private static final Object NO_SINGLETON = new Object();
+
     private final HashMap<Class, Object> fSingletons;
+    private final Map<Class, Object> fSingletonIndex;
+    private final Map<Class, Plan> fPlans;
+    private final Map<Class, MemberInjection[]> fMemberInjections;
 
     private HashMap<Class, Class> mBindings;
 
@@ -24,6 +40,9 @@ public class Injector {
         mBindings = new HashMap<>();
 
         fSingletons = new HashMap<>();
+        fSingletonIndex = new ConcurrentHashMap<>();
+        fPlans = new ConcurrentHashMap<>();
+        fMemberInjections = new ConcurrentHashMap<>();
 
         module.configure();
 
@@ -49,7 +68,7 @@ public class Injector {
             if (fSingletons.containsKey(singleton.getKey())) continue;
 
             try {
-                fSingletons.put(singleton.getKey(), getInstance(singleton.getValue()));
+                putSingleton(singleton.getKey(), getInstance(singleton.getValue(), false));
             } catch (Exception e) {
 
             }
@@ -63,8 +82,14 @@ public class Injector {
                 if (fSingletons.containsKey(singleton.getKey())) continue;
 
                 try {
-                    fSingletons.put(singleton.getKey(), getSingletonInstance(singleton.getValue(), singleton.getValue()));
+                    List<CircularDependent> circularDependents = new ArrayList<>();
+                    Object instance = getSingletonInstance(singleton.getValue(), singleton.getValue(), circularDependents);
+                    putSingleton(singleton.getKey(), instance);
                     updated = true;
+
+                    if (instance != null) {
+                        setCircularDependencies(circularDependents, instance);
+                    }
                 } catch (Exception e) {
                     e.printStackTrace();
                 }
@@ -78,12 +103,27 @@ public class Injector {
                 }
             }
         }
+
+        //Injects the fields and methods of the singletons now that they all exist
+        Set<Object> singletons = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Object singleton : fSingletons.values()) {
+            if (singleton != null && singletons.add(singleton)) {
+                injectMembers(singleton);
+            }
+        }
     }
 
     /**
      * Creates an instance of a class
      */
     public <T> T getInstance(Class<T> tClass) {
+        return getInstance(tClass, true);
+    }
+
+    /**
+     * Creates an instance of a class, singletons are created without injecting their fields and methods until every singleton exists
+     */
+    private <T> T getInstance(Class<T> tClass, boolean injectMembers) {
 
         @Nullable
         T singleton = getSingleton(tClass);
@@ -91,55 +131,183 @@ public class Injector {
             return singleton;
         }
 
+        @Nullable
+        Plan plan = fPlans.get(tClass);
+        if (plan == null) {
+            plan = createPlan(tClass);
+            fPlans.put(tClass, plan);
+        }
+
+        T instance = (T) plan.newInstance();
+
+        if (injectMembers) {
+            injectMembers(instance);
+        }
+
+        return instance;
+    }
+
+    /**
+     * Finds the constructor of a class and where each of its parameters comes from
+     */
+    private Plan createPlan(Class<?> tClass) {
         Constructor constructor = getConstructor(tClass);
 
         Class[] parameterTypes = constructor.getParameterTypes();
 
-        Object[] parameters = new Object[parameterTypes.length];
+        Supplier[] parameters = createParameters(parameterTypes, tClass);
+
+        try {
+            constructor.setAccessible(true);
+
+            MethodHandle handle = MethodHandles.lookup().unreflectConstructor(constructor)
+                    .asType(MethodType.genericMethodType(parameterTypes.length))
+                    .asSpreader(Object[].class, parameterTypes.length);
+
+            return new Plan(tClass, handle, parameters);
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+        }
+
+        throw new RuntimeException("Cannot create " + tClass);
+    }
+
+    /**
+     * Finds where each parameter comes from, either a singleton or a new instance of the bound class
+     */
+    private Supplier[] createParameters(Class[] parameterTypes, Class<?> tClass) {
+        Supplier[] parameters = new Supplier[parameterTypes.length];
 
         for (int p = 0; p < parameterTypes.length; p++) {
             @Nullable
-            Object parameter = fSingletons.get(parameterTypes[p]);
+            Object singleton = fSingletons.get(parameterTypes[p]);
 
-            if (parameter == null) {
-                Class parameterClass = mBindings.get(parameterTypes[p]);
-
-                if (parameterClass != null) {
-                    parameter = getInstance(parameterClass);
-                }
+            if (singleton != null) {
+                parameters[p] = () -> singleton;
+                continue;
             }
 
-            if (parameter == null) {
+            @Nullable
+            Class parameterClass = mBindings.get(parameterTypes[p]);
+
+            if (parameterClass == null) {
                 throw new RuntimeException("Missing parameter " + parameterTypes[p].getSimpleName() + " creating " + tClass.getSimpleName());
             }
 
-            parameters[p] = parameter;
+            parameters[p] = () -> getInstance(parameterClass);
         }
 
+        return parameters;
+    }
+
+    /**
+     * Sets the fields and calls the methods annotated with @Inject, superclass members first
+     */
+    private void injectMembers(Object instance) {
+        @Nullable
+        MemberInjection[] memberInjections = fMemberInjections.get(instance.getClass());
+        if (memberInjections == null) {
+            memberInjections = createMemberInjections(instance.getClass());
+            fMemberInjections.put(instance.getClass(), memberInjections);
+        }
+
+        for (MemberInjection memberInjection : memberInjections) {
+            memberInjection.inject(instance);
+        }
+    }
+
+    /**
+     * Finds the fields and methods of a class annotated with @Inject, methods overridden by a subclass are skipped
+     */
+    private MemberInjection[] createMemberInjections(Class<?> tClass) {
+        List<MemberInjection> memberInjections = new ArrayList<>();
+        Set<List<Object>> methodSignatures = new HashSet<>();
+
         try {
-            return (T) constructor.newInstance(parameters);
-        } catch (InstantiationException e) {
-            e.printStackTrace();
+            for (Class<?> c = tClass; c != null && c != Object.class; c = c.getSuperclass()) {
+                List<MemberInjection> classInjections = new ArrayList<>();
+
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || !field.isAnnotationPresent(Inject.class)) continue;
+
+                    field.setAccessible(true);
+                    MethodHandle handle = MethodHandles.lookup().unreflectSetter(field)
+                            .asType(MethodType.methodType(void.class, Object.class, Object.class))
+                            .asSpreader(Object[].class, 1);
+
+                    classInjections.add(new MemberInjection(handle, createParameters(new Class[]{field.getType()}, tClass)));
+                }
+
+                for (Method method : c.getDeclaredMethods()) {
+                    if (Modifier.isStatic(method.getModifiers()) || method.isSynthetic()) continue;
+
+                    boolean overridden = !methodSignatures.add(Arrays.asList(method.getName(), Arrays.asList(method.getParameterTypes())));
+                    if (overridden || !method.isAnnotationPresent(Inject.class)) continue;
+
+                    Class[] parameterTypes = method.getParameterTypes();
+
+                    MethodType type = MethodType.genericMethodType(parameterTypes.length + 1).changeReturnType(void.class);
+                    method.setAccessible(true);
+                    MethodHandle handle = MethodHandles.lookup().unreflect(method)
+                            .asType(type)
+                            .asSpreader(Object[].class, parameterTypes.length);
+
+                    classInjections.add(new MemberInjection(handle, createParameters(parameterTypes, tClass)));
+                }
+
+                memberInjections.addAll(0, classInjections);
+            }
         } catch (IllegalAccessException e) {
             e.printStackTrace();
-        } catch (InvocationTargetException e) {
-            e.printStackTrace();
+            throw new RuntimeException("Cannot inject " + tClass);
         }
 
-        throw new RuntimeException("Cannot create " + tClass);
+        return memberInjections.toArray(new MemberInjection[0]);
+    }
+
+    /**
+     * Sets the fields that were given null in place of a singleton while it was being created
+     */
+    private void setCircularDependencies(List<CircularDependent> circularDependents, Object singleton) {
+        for (CircularDependent circularDependent : circularDependents) {
+            boolean set = false;
+
+            for (Class<?> c = circularDependent.fInstance.getClass(); c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || field.getType() != circularDependent.fType) continue;
+
+                    try {
+                        field.setAccessible(true);
+
+                        if (field.get(circularDependent.fInstance) == null) {
+                            field.set(circularDependent.fInstance, singleton);
+                            set = true;
+                        }
+                    } catch (IllegalAccessException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+
+            if (!set) {
+                throw new RuntimeException(circularDependent.fInstance.getClass().getSimpleName() + " must store its " + circularDependent.fType.getSimpleName() +
+                        " parameter in a field to be part of a circular dependency");
+            }
+        }
     }
 
     /**
      * Creates an instance of a singleton with or without circular dependencies
      */
     @Nullable
-    private <T> T getSingletonInstance(Class<T> tClass, Class<T> singletonClass) {
+    private <T> T getSingletonInstance(Class<T> tClass, Class<T> singletonClass, List<CircularDependent> circularDependents) {
 
         Constructor constructor = getConstructor(tClass);
 
         Class[] parameterTypes = constructor.getParameterTypes();
 
         Object[] parameters = new Object[parameterTypes.length];
+        List<Class> circularTypes = new ArrayList<>();
 
         for (int p = 0; p < parameterTypes.length; p++) {
             @Nullable
@@ -148,13 +316,12 @@ public class Injector {
             if (parameter == null) {
                 Class parameterClass = mBindings.get(parameterTypes[p]);
 
-                //Creates a java proxy to handle circular dependencies
+                //Passes null for the singleton being created, the field it is stored in is set once the singleton exists
                 if (parameterClass == null && parameterTypes[p].isAssignableFrom(singletonClass)) {
-                    parameter = Proxy.newProxyInstance(Injector.class.getClassLoader(), new Class[]{parameterTypes[p]}, (proxy, method, args) -> {
-                        return method.getReturnType().cast(method.invoke(getSingleton(singletonClass), args));
-                    });
+                    circularTypes.add(parameterTypes[p]);
+                    continue;
                 } else if (parameterClass != null) {
-                    parameter = getSingletonInstance(parameterClass, singletonClass);
+                    parameter = getSingletonInstance(parameterClass, singletonClass, circularDependents);
                 }
             }
 
@@ -166,7 +333,13 @@ public class Injector {
         }
 
         try {
-            return (T) constructor.newInstance(parameters);
+            T instance = (T) constructor.newInstance(parameters);
+
+            for (Class circularType : circularTypes) {
+                circularDependents.add(new CircularDependent(instance, circularType));
+            }
+
+            return instance;
         } catch (InstantiationException e) {
             e.printStackTrace();
         } catch (IllegalAccessException e) {
@@ -208,12 +381,108 @@ public class Injector {
      */
     @Nullable
     private <T> T getSingleton(Class<T> tClass) {
-        for (HashMap.Entry<Class, Object> singleton : fSingletons.entrySet()) {
-            if (singleton.getKey().isAssignableFrom(tClass)) {
-                return (T) singleton.getValue();
+        @Nullable
+        Object singleton = fSingletonIndex.get(tClass);
+
+        if (singleton == null) {
+            singleton = NO_SINGLETON;
+
+            for (HashMap.Entry<Class, Object> entry : fSingletons.entrySet()) {
+                if (entry.getKey().isAssignableFrom(tClass)) {
+                    singleton = entry.getValue() != null ? entry.getValue() : NO_SINGLETON;
+                    break;
+                }
             }
+
+            fSingletonIndex.put(tClass, singleton);
         }
 
-        return null;
+        return singleton != NO_SINGLETON ? (T) singleton : null;
+    }
+
+    /**
+     * Adds a singleton and clears the caches that depend on the singletons
+     */
+    private void putSingleton(Class tClass, @Nullable Object singleton) {
+        fSingletons.put(tClass, singleton);
+
+        fSingletonIndex.clear();
+        fPlans.clear();
+    }
+
+    /**
+     * A constructor and the sources of its parameters
+     */
+    private static class Plan {
+
+        private final Class<?> fClass;
+        private final MethodHandle fConstructor;
+        private final Supplier[] fParameters;
+
+        private Plan(Class<?> tClass, MethodHandle constructor, Supplier[] parameters) {
+            fClass = tClass;
+            fConstructor = constructor;
+            fParameters = parameters;
+        }
+
+        private Object newInstance() {
+            Object[] parameters = new Object[fParameters.length];
+
+            for (int p = 0; p < parameters.length; p++) {
+                parameters[p] = fParameters[p].get();
+            }
+
+            try {
+                return (Object) fConstructor.invokeExact(parameters);
+            } catch (Throwable t) {
+                t.printStackTrace();
+            }
+
+            throw new RuntimeException("Cannot create " + fClass);
+        }
+    }
+
+    /**
+     * Sets a field or calls a method with its parameters
+     */
+    private static class MemberInjection {
+
+        // Takes the instance and an array of the parameters
+        private final MethodHandle fHandle;
+        private final Supplier[] fParameters;
+
+        private MemberInjection(MethodHandle handle, Supplier[] parameters) {
+            fHandle = handle;
+            fParameters = parameters;
+        }
+
+        private void inject(Object instance) {
+            Object[] parameters = new Object[fParameters.length];
+
+            for (int p = 0; p < parameters.length; p++) {
+                parameters[p] = fParameters[p].get();
+            }
+
+            try {
+                fHandle.invokeExact(instance, parameters);
+            } catch (Throwable t) {
+                t.printStackTrace();
+                throw new RuntimeException("Cannot inject " + instance.getClass());
+            }
+        }
+    }
+
+    /**
+     * An object that was given null in place of the singleton being created
+     */
+    private static class CircularDependent {
+
+        private final Object fInstance;
+        private final Class<?> fType;
+
+        private CircularDependent(Object instance, Class<?> type) {
+            fInstance = instance;
+            fType = type;
+        }
     }
 }
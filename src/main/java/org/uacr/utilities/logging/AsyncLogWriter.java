@@ -0,0 +1,183 @@
+package org.uacr.utilities.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Queues log calls in a bounded lock-free ring buffer of preallocated records and formats and writes them on a background thread,
+ * so logging never waits on a slow console or file
+ * Any thread can log, only the writer thread (or a final drain while shutting down) takes records out
+ * <p>
+ * Arguments are formatted on the writer thread, so mutable arguments should not be changed after they are logged
+ */
+
+public class AsyncLogWriter {
+
+    // How long the writer thread sleeps when there is nothing to write
+    private static final long IDLE_PARK_NANOS = 1000000;
+    // How long a blocked caller waits before checking for room again
+    private static final long BLOCKED_PARK_NANOS = 50000;
+
+    private final LogManager fLogManager;
+    private final DropPolicy fDropPolicy;
+    private final LogRecord[] fRecords;
+    // The position each slot is ready for, the Vyukov bounded queue sequence
+    private final AtomicLongArray fSequences;
+    private final int fMask;
+    private final AtomicLong fTail;
+    private final AtomicLong fDropped;
+    private final Thread fWriterThread;
+    private final Object fDrainLock;
+
+    private volatile boolean mRunning;
+    private long mHead;
+    private long mReportedDropped;
+
+    /**
+     * @param logManager the log manager that formats and handles the records
+     * @param bufferSize the number of records that can wait to be written, rounded up to a power of two
+     * @param dropPolicy what to do when a message is logged while the buffer is full
+     */
+    AsyncLogWriter(LogManager logManager, int bufferSize, DropPolicy dropPolicy) {
+        int size = Integer.highestOneBit(Math.max(bufferSize, 2) - 1) << 1;
+
+        fLogManager = logManager;
+        fDropPolicy = dropPolicy;
+        fRecords = new LogRecord[size];
+        fSequences = new AtomicLongArray(size);
+        for (int r = 0; r < size; r++) {
+            fRecords[r] = new LogRecord();
+            fSequences.set(r, r);
+        }
+        fMask = size - 1;
+        fTail = new AtomicLong();
+        fDropped = new AtomicLong();
+        fDrainLock = new Object();
+
+        mRunning = true;
+        mHead = 0;
+        mReportedDropped = 0;
+
+        fWriterThread = new Thread(this::run, "LogManager Writer");
+        fWriterThread.setDaemon(true);
+        fWriterThread.start();
+    }
+
+    /**
+     * Copies a log call into the next free record
+     *
+     * @return false if the message was dropped because the buffer was full
+     */
+    boolean enqueue(LogManager.Level level, String prefix, String template, Object[] args) {
+        long position = fTail.get();
+
+        while (true) {
+            int index = (int) (position & fMask);
+            long difference = fSequences.get(index) - position;
+
+            if (difference == 0) {
+                if (fTail.compareAndSet(position, position + 1)) {
+                    fRecords[index].set(level, prefix, template, args);
+                    fSequences.set(index, position + 1);
+                    return true;
+                }
+                position = fTail.get();
+            } else if (difference < 0) {
+                // Blocking on the writer thread (a handler that logs) would never return
+                if (fDropPolicy == DropPolicy.DROP_NEWEST || !mRunning || Thread.currentThread() == fWriterThread) {
+                    fDropped.incrementAndGet();
+                    return false;
+                }
+                LockSupport.parkNanos(BLOCKED_PARK_NANOS);
+                position = fTail.get();
+            } else {
+                position = fTail.get();
+            }
+        }
+    }
+
+    /**
+     * @return the number of messages dropped because the buffer was full
+     */
+    public long getDroppedCount() {
+        return fDropped.get();
+    }
+
+    /**
+     * Writes every record that is waiting on the calling thread
+     */
+    public void flush() {
+        drain();
+    }
+
+    /**
+     * Stops the writer thread after writing every record that is waiting
+     */
+    void shutDown() {
+        mRunning = false;
+        LockSupport.unpark(fWriterThread);
+        try {
+            fWriterThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+    }
+
+    private void run() {
+        while (mRunning) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * @return the number of records written
+     */
+    private int drain() {
+        synchronized (fDrainLock) {
+            int written = 0;
+
+            while (true) {
+                int index = (int) (mHead & fMask);
+                if (fSequences.get(index) != mHead + 1) {
+                    break;
+                }
+
+                LogRecord record = fRecords[index];
+                try {
+                    fLogManager.write(record);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+                record.clear();
+
+                fSequences.set(index, mHead + fMask + 1);
+                mHead++;
+                written++;
+            }
+
+            long dropped = fDropped.get();
+            if (dropped != mReportedDropped) {
+                LogRecord record = new LogRecord();
+                record.set(LogManager.Level.ERROR, "LogManager", "Dropped {} log messages because the buffer was full", new Object[]{dropped - mReportedDropped});
+                fLogManager.write(record);
+                mReportedDropped = dropped;
+            }
+
+            return written;
+        }
+    }
+
+    /**
+     * What to do when a message is logged while the buffer is full
+     */
+    public enum DropPolicy {
+        // Discard the message being logged and count it
+        DROP_NEWEST,
+        // Wait until the writer thread makes room, messages logged by a handler are dropped instead
+        BLOCK
+    }
+}
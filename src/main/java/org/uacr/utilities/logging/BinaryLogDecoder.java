@@ -0,0 +1,146 @@
+package org.uacr.utilities.logging;
+
+import javax.annotation.Nullable;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns a file written by BinaryLogHandler back into the text lines the LogManager prints
+ */
+
+public class BinaryLogDecoder {
+
+    private final DataInputStream fInput;
+    private final Map<Integer, String> fPrefixes;
+    private final Map<Integer, String> fTemplates;
+    private final Map<Long, String> fThreadNames;
+
+    /**
+     * @param input the binary log, starting with the file header
+     */
+    public BinaryLogDecoder(InputStream input) throws IOException {
+        fInput = new DataInputStream(new BufferedInputStream(input));
+        fPrefixes = new HashMap<>();
+        fTemplates = new HashMap<>();
+        fThreadNames = new HashMap<>();
+
+        if (fInput.readInt() != BinaryLogHandler.FILE_MAGIC || fInput.readInt() != BinaryLogHandler.FILE_VERSION) {
+            throw new IOException("Not a binary log file");
+        }
+    }
+
+    /**
+     * Prints a binary log file as text
+     *
+     * @param args the path of the file to decode
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: BinaryLogDecoder <binary log file>");
+            return;
+        }
+
+        try (InputStream input = new FileInputStream(args[0])) {
+            BinaryLogDecoder decoder = new BinaryLogDecoder(input);
+            String line;
+            while ((line = decoder.readLine()) != null) {
+                System.out.println(line);
+            }
+        }
+    }
+
+    /**
+     * @return the next log line, or null at the end of the log
+     */
+    @Nullable
+    public String readLine() throws IOException {
+        LogRecord record = readRecord();
+        return record != null ? LogManager.formatLine(record) : null;
+    }
+
+    /**
+     * @return the next log record, or null at the end of the log
+     */
+    @Nullable
+    public LogRecord readRecord() throws IOException {
+        while (true) {
+            int tag;
+            try {
+                tag = fInput.readByte();
+            } catch (EOFException e) {
+                return null;
+            }
+
+            switch (tag) {
+                case BinaryLogHandler.TAG_PREFIX:
+                    fPrefixes.put(fInput.readInt(), readString());
+                    break;
+                case BinaryLogHandler.TAG_TEMPLATE:
+                    fTemplates.put(fInput.readInt(), readString());
+                    break;
+                case BinaryLogHandler.TAG_THREAD:
+                    fThreadNames.put(fInput.readLong(), readString());
+                    break;
+                case BinaryLogHandler.TAG_RECORD:
+                    return readRecordBody();
+                case BinaryLogHandler.TAG_END:
+                    // The unused end of the last chunk of a log that was not closed
+                    return null;
+                default:
+                    throw new IOException("Unknown entry " + tag + " in binary log");
+            }
+        }
+    }
+
+    private LogRecord readRecordBody() throws IOException {
+        long timeNanos = fInput.readLong();
+        long threadId = fInput.readLong();
+        LogManager.Level level = LogManager.Level.values()[fInput.readByte()];
+        String prefix = fPrefixes.getOrDefault(fInput.readInt(), "?");
+        int templateId = fInput.readInt();
+        String template = templateId < 0 ? readString() : fTemplates.getOrDefault(templateId, "?");
+
+        int argCount = fInput.readByte();
+        List<Object> args = new ArrayList<>(argCount);
+        for (int a = 0; a < argCount; a++) {
+            args.add(readArg());
+        }
+
+        LogRecord record = new LogRecord();
+        record.set(level, prefix, template, args.toArray(), timeNanos, threadId, fThreadNames.getOrDefault(threadId, "?"));
+        return record;
+    }
+
+    @Nullable
+    private Object readArg() throws IOException {
+        byte type = fInput.readByte();
+        switch (type) {
+            case BinaryLogHandler.ARG_NULL:
+                return null;
+            case BinaryLogHandler.ARG_INT:
+                return fInput.readInt();
+            case BinaryLogHandler.ARG_LONG:
+                return fInput.readLong();
+            case BinaryLogHandler.ARG_DOUBLE:
+                return fInput.readDouble();
+            case BinaryLogHandler.ARG_FLOAT:
+                return fInput.readFloat();
+            case BinaryLogHandler.ARG_BOOLEAN:
+                return fInput.readByte() != 0;
+            case BinaryLogHandler.ARG_STRING:
+                return readString();
+            default:
+                throw new IOException("Unknown argument type " + type + " in binary log");
+        }
+    }
+
+    private String readString() throws IOException {
+        byte[] bytes = new byte[fInput.readInt()];
+        fInput.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,272 @@
+package org.uacr.utilities.logging;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes log records in a compact binary format to a memory mapped file instead of formatting them as text
+ * Logger prefixes, message templates and thread names are written once when they are first seen and referred to by id after that,
+ * and arguments that are primitives or boxed primitives are written as raw values
+ * <p>
+ * Use BinaryLogDecoder to turn the file back into the usual text lines
+ * <p>
+ * File layout, big endian: the magic and version ints followed by entries that each start with a tag byte
+ * <ul>
+ * <li>PREFIX: int id, string prefix</li>
+ * <li>TEMPLATE: int id, string template</li>
+ * <li>THREAD: long thread id, string name</li>
+ * <li>RECORD: long epoch nanos, long thread id, byte level, int prefix id, int template id (-1 followed by the template string),
+ * byte argument count, arguments</li>
+ * <li>END: a zero byte, also what the unused rest of the last mapped chunk reads as</li>
+ * </ul>
+ * Each argument is a type byte followed by its value, strings are an int length followed by UTF-8 bytes
+ * <p>
+ * If a write fails part way through an entry, logging stops and the file is cut after the last complete entry
+ */
+
+public class BinaryLogHandler implements StructuredLogHandler {
+
+    public static final int FILE_MAGIC = 0x55424C47;
+    public static final int FILE_VERSION = 1;
+
+    public static final byte TAG_END = 0;
+    public static final byte TAG_PREFIX = 1;
+    public static final byte TAG_TEMPLATE = 2;
+    public static final byte TAG_THREAD = 3;
+    public static final byte TAG_RECORD = 4;
+
+    public static final byte ARG_NULL = 0;
+    public static final byte ARG_INT = 1;
+    public static final byte ARG_LONG = 2;
+    public static final byte ARG_DOUBLE = 3;
+    public static final byte ARG_FLOAT = 4;
+    public static final byte ARG_BOOLEAN = 5;
+    public static final byte ARG_STRING = 6;
+
+    // Templates built at runtime would grow the table forever, so after this many they are written inline as id -1
+    private static final int MAX_TEMPLATES = 65536;
+    // The most arguments written for one record, the rest are dropped
+    private static final int MAX_ARGS = 127;
+
+    private final FileChannel fChannel;
+    private final int fChunkSize;
+    private final Map<String, Integer> fPrefixIds;
+    private final Map<String, Integer> fTemplateIds;
+    private final Map<Long, String> fThreadNames;
+
+    private MappedByteBuffer mBuffer;
+    private long mChunkPosition;
+    // The end of the last complete entry in the file
+    private long mCommittedPosition;
+    private boolean mClosed;
+
+    /**
+     * @param path the file to write, replaced if it exists
+     */
+    public BinaryLogHandler(String path) throws IOException {
+        this(path, 4 * 1024 * 1024);
+    }
+
+    /**
+     * @param path      the file to write, replaced if it exists
+     * @param chunkSize the number of bytes mapped at a time
+     */
+    public BinaryLogHandler(String path, int chunkSize) throws IOException {
+        fChannel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        fChunkSize = chunkSize;
+        fPrefixIds = new HashMap<>();
+        fTemplateIds = new HashMap<>();
+        fThreadNames = new HashMap<>();
+
+        mChunkPosition = 0;
+        mBuffer = fChannel.map(FileChannel.MapMode.READ_WRITE, 0, fChunkSize);
+        mClosed = false;
+
+        mBuffer.putInt(FILE_MAGIC);
+        mBuffer.putInt(FILE_VERSION);
+        commit();
+    }
+
+    @Override
+    public synchronized void handle(LogRecord record) {
+        if (mClosed) {
+            return;
+        }
+
+        try {
+            int prefixId = getPrefixId(record.getPrefix());
+            int templateId = getTemplateId(record.getTemplate());
+            writeThread(record.getThreadId(), record.getThreadName());
+
+            Object[] args = record.getArgs();
+            int argCount = Math.min(args.length, MAX_ARGS);
+
+            reserve(35);
+            mBuffer.put(TAG_RECORD);
+            mBuffer.putLong(record.getTimeNanos());
+            mBuffer.putLong(record.getThreadId());
+            mBuffer.put((byte) record.getLevel().ordinal());
+            mBuffer.putInt(prefixId);
+            mBuffer.putInt(templateId);
+            if (templateId < 0) {
+                writeString(record.getTemplate());
+            }
+            mBuffer.put((byte) argCount);
+
+            for (int a = 0; a < argCount; a++) {
+                writeArg(args[a]);
+            }
+            commit();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Binary logging stopped: " + e);
+            try {
+                finish();
+            } catch (IOException closeException) {
+                System.err.println("Cannot close binary log: " + closeException);
+            }
+        }
+    }
+
+    /**
+     * Writes the mapped data to disk and trims the unused end of the file
+     */
+    public synchronized void close() throws IOException {
+        if (mClosed) {
+            return;
+        }
+
+        finish();
+    }
+
+    /**
+     * Stops logging, writes the mapped data to disk and cuts the file after the last complete entry,
+     * which also drops an entry that was only partly written
+     */
+    private void finish() throws IOException {
+        mClosed = true;
+
+        try {
+            mBuffer.force();
+            fChannel.truncate(mCommittedPosition);
+        } finally {
+            fChannel.close();
+        }
+    }
+
+    private void commit() {
+        mCommittedPosition = mChunkPosition + mBuffer.position();
+    }
+
+    private int getPrefixId(String prefix) throws IOException {
+        Integer id = fPrefixIds.get(prefix);
+        if (id == null) {
+            id = fPrefixIds.size();
+            fPrefixIds.put(prefix, id);
+            byte[] bytes = prefix.getBytes(StandardCharsets.UTF_8);
+            reserve(9 + bytes.length);
+            mBuffer.put(TAG_PREFIX);
+            mBuffer.putInt(id);
+            putBytes(bytes);
+            commit();
+        }
+        return id;
+    }
+
+    private int getTemplateId(String template) throws IOException {
+        Integer id = fTemplateIds.get(template);
+        if (id == null) {
+            if (fTemplateIds.size() >= MAX_TEMPLATES) {
+                return -1;
+            }
+            id = fTemplateIds.size();
+            fTemplateIds.put(template, id);
+            byte[] bytes = template.getBytes(StandardCharsets.UTF_8);
+            reserve(9 + bytes.length);
+            mBuffer.put(TAG_TEMPLATE);
+            mBuffer.putInt(id);
+            putBytes(bytes);
+            commit();
+        }
+        return id;
+    }
+
+    // Threads can be renamed, so the name is written again whenever it changes
+    private void writeThread(long threadId, String threadName) throws IOException {
+        if (!threadName.equals(fThreadNames.get(threadId))) {
+            fThreadNames.put(threadId, threadName);
+            byte[] bytes = threadName.getBytes(StandardCharsets.UTF_8);
+            reserve(13 + bytes.length);
+            mBuffer.put(TAG_THREAD);
+            mBuffer.putLong(threadId);
+            putBytes(bytes);
+            commit();
+        }
+    }
+
+    private void writeArg(Object arg) throws IOException {
+        reserve(9);
+        if (arg == null) {
+            mBuffer.put(ARG_NULL);
+        } else if (arg instanceof Integer || arg instanceof Short || arg instanceof Byte) {
+            mBuffer.put(ARG_INT);
+            mBuffer.putInt(((Number) arg).intValue());
+        } else if (arg instanceof Long) {
+            mBuffer.put(ARG_LONG);
+            mBuffer.putLong((Long) arg);
+        } else if (arg instanceof Double) {
+            mBuffer.put(ARG_DOUBLE);
+            mBuffer.putDouble((Double) arg);
+        } else if (arg instanceof Float) {
+            mBuffer.put(ARG_FLOAT);
+            mBuffer.putFloat((Float) arg);
+        } else if (arg instanceof Boolean) {
+            mBuffer.put(ARG_BOOLEAN);
+            mBuffer.put((byte) ((Boolean) arg ? 1 : 0));
+        } else {
+            writeString(ARG_STRING, arg.toString());
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        reserve(4 + bytes.length);
+        putBytes(bytes);
+    }
+
+    private void writeString(byte type, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        reserve(5 + bytes.length);
+        mBuffer.put(type);
+        putBytes(bytes);
+    }
+
+    private void putBytes(byte[] bytes) {
+        mBuffer.putInt(bytes.length);
+        mBuffer.put(bytes);
+    }
+
+    /**
+     * Maps the next chunk of the file if the current one does not have room for the next write
+     * The next chunk starts where writing stopped, so the file stays contiguous
+     */
+    private void reserve(int bytes) throws IOException {
+        if (mBuffer.remaining() >= bytes) {
+            return;
+        }
+        if (bytes > fChunkSize) {
+            throw new IOException("A log entry of " + bytes + " bytes is larger than the chunk size");
+        }
+
+        // Only moves to the next chunk once it is mapped, so a failed map leaves the current chunk to be finished
+        long chunkPosition = mChunkPosition + mBuffer.position();
+        mBuffer.force();
+        mBuffer = fChannel.map(FileChannel.MapMode.READ_WRITE, chunkPosition, fChunkSize);
+        mChunkPosition = chunkPosition;
+    }
+}
@@ -1,41 +1,64 @@
 package org.uacr.utilities.logging;
 
 import javax.annotation.Nullable;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 /**
  * Takes the log messages from each logger and sends them to the log handlers
+ * In async mode messages are queued by the caller and formatted and handled on a background writer thread
+ * <p>
+ * The logging level can be overridden for loggers by prefix, a logger uses the level of the longest override its prefix starts with
+ * or the global level if there is none. Each logger stores its resolved level, so checking it is a single field read
  */
 
 public class LogManager {
 
     @Nullable
     private static LogManager sLogManager = null;
+    private static boolean sFlushOnShutdown = false;
 
-    private final DateTimeFormatter fDateTimeFormatter;
-    private final HashSet<LogHandler> fLogHandlers;
+    private static final DateTimeFormatter sDateTimeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+    private static final ZoneId sZoneId = ZoneId.systemDefault();
 
-    private Level mCurrentLoggingLevel;
+    private final Set<LogHandler> fLogHandlers;
+    private LogHandler mDefaultLogHandler;
+    private final Map<String, Logger> fLoggers;
+    private final Map<String, Level> fLevelOverrides;
+
+    private volatile Level mCurrentLoggingLevel;
+    @Nullable
+    private volatile AsyncLogWriter mAsyncLogWriter;
+    // Messages dropped by async writers that have been stopped
+    private long mDroppedCount;
 
     private LogManager() {
         sLogManager = this;
 
-        fDateTimeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
-
-        fLogHandlers = new HashSet<>();
+        // Copy on write so the writer thread can handle messages while handlers are added
+        fLogHandlers = new CopyOnWriteArraySet<>();
+        fLoggers = new ConcurrentHashMap<>();
+        fLevelOverrides = new ConcurrentHashMap<>();
         mCurrentLoggingLevel = Level.INFO;
+        mAsyncLogWriter = null;
+        mDroppedCount = 0;
 
-        addLogHandler(new DefaultLogHandler());
+        mDefaultLogHandler = new DefaultLogHandler();
+        addLogHandler(mDefaultLogHandler);
     }
 
-    // Creates a logger and a log manager if necessary
+    // Creates a logger and a log manager if necessary, loggers are shared by every class with the same prefix
     public static Logger getLogger(String prefix) {
         if (sLogManager == null) {
             sLogManager = new LogManager();
         }
-        return new Logger(sLogManager, prefix);
+        return sLogManager.fLoggers.computeIfAbsent(prefix, tPrefix -> new Logger(sLogManager, tPrefix));
     }
 
     public static Logger getLogger(Class prefix) {
@@ -49,11 +72,48 @@ public class LogManager {
         return sLogManager.mCurrentLoggingLevel;
     }
 
-    public static void setLogLevel(Level level) {
+    // Sets the level of every logger without an override
+    public static synchronized void setLogLevel(Level level) {
         if (sLogManager == null) {
             new LogManager();
         }
         sLogManager.mCurrentLoggingLevel = level;
+        sLogManager.updateLoggerLevels();
+    }
+
+    /**
+     * @param prefix the logger prefix
+     * @return the level used by loggers with the prefix
+     */
+    public static Level getLogLevel(String prefix) {
+        if (sLogManager == null) {
+            new LogManager();
+        }
+        return sLogManager.resolveLevel(prefix);
+    }
+
+    /**
+     * Overrides the level of every logger whose prefix starts with the given prefix
+     * @param prefix the start of the logger prefixes, such as "StateMachine"
+     * @param level the level to use for those loggers
+     */
+    public static synchronized void setLogLevel(String prefix, Level level) {
+        if (sLogManager == null) {
+            new LogManager();
+        }
+        sLogManager.fLevelOverrides.put(prefix, level);
+        sLogManager.updateLoggerLevels();
+    }
+
+    /**
+     * Removes a level override so the loggers go back to the global level
+     * @param prefix the prefix passed to setLogLevel
+     */
+    public static synchronized void clearLogLevel(String prefix) {
+        if (sLogManager != null) {
+            sLogManager.fLevelOverrides.remove(prefix);
+            sLogManager.updateLoggerLevels();
+        }
     }
 
     // Creates a log manager if necessary and adds the logHandler to the list of log handlers
@@ -64,61 +124,171 @@ public class LogManager {
         sLogManager.fLogHandlers.add(logHandler);
     }
 
+    /**
+     * Replaces the handler that prints to the console, such as with a RateLimitingLogHandler that wraps it
+     * @param logHandler the new default log handler
+     */
+    public static synchronized void setDefaultLogHandler(LogHandler logHandler) {
+        if (sLogManager == null) {
+            new LogManager();
+        }
+        sLogManager.fLogHandlers.remove(sLogManager.mDefaultLogHandler);
+        sLogManager.mDefaultLogHandler = logHandler;
+        sLogManager.fLogHandlers.add(logHandler);
+    }
+
+    /**
+     * @return the handler that prints to the console
+     */
+    public static LogHandler getDefaultLogHandler() {
+        if (sLogManager == null) {
+            new LogManager();
+        }
+        return sLogManager.mDefaultLogHandler;
+    }
+
     public static void removeLogHandler(LogHandler logHandler) {
         if (sLogManager != null) {
             sLogManager.fLogHandlers.remove(logHandler);
         }
     }
 
-    // Takes a log message and passes it to the log handler
+    /**
+     * Starts writing messages on a background thread, messages that are waiting are written first if async mode was already on
+     * @param bufferSize the number of messages that can wait to be written
+     * @param dropPolicy what to do when a message is logged while the buffer is full
+     */
+    public static synchronized void startAsync(int bufferSize, AsyncLogWriter.DropPolicy dropPolicy) {
+        if (sLogManager == null) {
+            new LogManager();
+        }
+        stopAsync();
+        sLogManager.mAsyncLogWriter = new AsyncLogWriter(sLogManager, bufferSize, dropPolicy);
+
+        // The writer thread is a daemon, so anything still waiting when the robot exits is written by a shutdown hook
+        if (!sFlushOnShutdown) {
+            Runtime.getRuntime().addShutdownHook(new Thread(LogManager::flush, "LogManager Flush"));
+            sFlushOnShutdown = true;
+        }
+    }
+
+    /**
+     * Writes every waiting message and goes back to handling messages on the thread that logs them
+     */
+    public static synchronized void stopAsync() {
+        if (sLogManager != null) {
+            AsyncLogWriter asyncLogWriter = sLogManager.mAsyncLogWriter;
+            if (asyncLogWriter != null) {
+                sLogManager.mAsyncLogWriter = null;
+                asyncLogWriter.shutDown();
+                sLogManager.mDroppedCount += asyncLogWriter.getDroppedCount();
+            }
+        }
+    }
+
+    /**
+     * Writes every message that is waiting in async mode on the calling thread
+     */
+    public static void flush() {
+        if (sLogManager != null) {
+            AsyncLogWriter asyncLogWriter = sLogManager.mAsyncLogWriter;
+            if (asyncLogWriter != null) {
+                asyncLogWriter.flush();
+            }
+        }
+    }
+
+    /**
+     * @return the number of messages dropped because the async buffer was full
+     */
+    public static synchronized long getDroppedCount() {
+        if (sLogManager == null) {
+            return 0;
+        }
+
+        AsyncLogWriter asyncLogWriter = sLogManager.mAsyncLogWriter;
+        return sLogManager.mDroppedCount + (asyncLogWriter != null ? asyncLogWriter.getDroppedCount() : 0);
+    }
+
+    // Takes a log message and passes it to the log handler if it is above the level of the prefix
     public void log(Level level, String prefix, String message, Object... args) {
-        if (!shouldLog(level)) {
+        if (resolveLevel(prefix).getPriority() > level.getPriority()) {
             return;
         }
 
-        final String line = LocalDateTime.now().format(fDateTimeFormatter) + " " + Thread.currentThread().getName() + " [" + level + "] " + prefix + " - " + buildMessage(message, args);
+        write(level, prefix, message, args);
+    }
 
-        switch (level) {
-            case TRACE:
-                fLogHandlers.forEach((handler) -> handler.trace(line));
-                break;
-            case DEBUG:
-                fLogHandlers.forEach((handler) -> handler.debug(line));
-                break;
-            case INFO:
-                fLogHandlers.forEach((handler) -> handler.info(line));
-                break;
-            case ERROR:
-                fLogHandlers.forEach((handler) -> handler.error(line));
-                break;
+    // Passes a log message that has already been checked against the logging level to the log handlers, or queues it for the writer thread in async mode
+    void write(Level level, String prefix, String message, Object... args) {
+        AsyncLogWriter asyncLogWriter = mAsyncLogWriter;
+        if (asyncLogWriter != null) {
+            asyncLogWriter.enqueue(level, prefix, message, args);
+            return;
         }
+
+        LogRecord record = new LogRecord();
+        record.set(level, prefix, message, args);
+        write(record);
     }
 
-    // Combines the different parts of the message
-    private String buildMessage(String message, Object... args) {
-        if (message.endsWith("{}")) {
-            message += " ";
-        }
+    // Passes a log record to the structured log handlers and the formatted line to the other log handlers
+    void write(LogRecord record) {
+        @Nullable
+        String line = null;
 
-        StringBuilder line = new StringBuilder();
+        for (LogHandler handler : fLogHandlers) {
+            if (handler instanceof StructuredLogHandler) {
+                ((StructuredLogHandler) handler).handle(record);
+                continue;
+            }
 
-        String[] parts = message.split("\\{\\}");
+            if (line == null) {
+                line = formatLine(record);
+            }
 
-        for (int p = 0; p < parts.length - 1; p++) {
-            line.append(parts[p]);
-            if (p < args.length) {
-                line.append(args[p]);
+            switch (record.getLevel()) {
+                case TRACE:
+                    handler.trace(line);
+                    break;
+                case DEBUG:
+                    handler.debug(line);
+                    break;
+                case INFO:
+                    handler.info(line);
+                    break;
+                case ERROR:
+                    handler.error(line);
+                    break;
             }
         }
+    }
+
+    // Formats a log record as a line of text
+    static String formatLine(LogRecord record) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(record.getTimeMillis()), sZoneId).format(sDateTimeFormatter) + " " +
+                record.getThreadName() + " [" + record.getLevel() + "] " + record.getPrefix() + " - " + MessageTemplate.get(record.getTemplate()).format(record.getArgs());
+    }
 
-        line.append(parts[parts.length - 1]);
+    // Finds the level of the longest override that the prefix starts with
+    Level resolveLevel(String prefix) {
+        Level level = mCurrentLoggingLevel;
+        int matchLength = -1;
 
-        return line.toString().trim();
+        for (Map.Entry<String, Level> override : fLevelOverrides.entrySet()) {
+            if (prefix.startsWith(override.getKey()) && override.getKey().length() > matchLength) {
+                level = override.getValue();
+                matchLength = override.getKey().length();
+            }
+        }
+
+        return level;
     }
 
-    // Decides if a message is above the level that the logging is set to
-    private boolean shouldLog(Level level) {
-        return mCurrentLoggingLevel.getPriority() <= level.getPriority();
+    private void updateLoggerLevels() {
+        for (Logger logger : fLoggers.values()) {
+            logger.updateLevel();
+        }
     }
 
     public enum Level {
@@ -0,0 +1,97 @@
+package org.uacr.utilities.logging;
+
+import javax.annotation.Nullable;
+
+/**
+ * A single log call before it has been formatted
+ * Records in the async ring buffer are preallocated and reused, so a record must not be kept after it has been handled
+ */
+
+public class LogRecord {
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private static final long sEpochNanos = System.currentTimeMillis() * 1000000;
+    private static final long sStartNanos = System.nanoTime();
+
+    private LogManager.Level mLevel;
+    private String mPrefix;
+    private String mTemplate;
+    private Object[] mArgs;
+    private long mTimeNanos;
+    private long mThreadId;
+    private String mThreadName;
+
+    LogRecord() {
+        clear();
+    }
+
+    // Fills in a log call made on the current thread at the current time
+    void set(LogManager.Level level, String prefix, String template, @Nullable Object[] args) {
+        Thread thread = Thread.currentThread();
+        set(level, prefix, template, args, currentTimeNanos(), thread.getId(), thread.getName());
+    }
+
+    void set(LogManager.Level level, String prefix, String template, @Nullable Object[] args, long timeNanos, long threadId, String threadName) {
+        mLevel = level;
+        mPrefix = prefix;
+        mTemplate = template;
+        mArgs = args != null ? args : NO_ARGS;
+        mTimeNanos = timeNanos;
+        mThreadId = threadId;
+        mThreadName = threadName;
+    }
+
+    /**
+     * The wall clock is read once and System.nanoTime() measures from there,
+     * so times have nanosecond resolution and never go backwards while the robot is running
+     *
+     * @return the current time in nanoseconds since the epoch
+     */
+    public static long currentTimeNanos() {
+        return sEpochNanos + (System.nanoTime() - sStartNanos);
+    }
+
+    // Drops the references held by the record so handled arguments can be garbage collected
+    void clear() {
+        mLevel = LogManager.Level.INFO;
+        mPrefix = "";
+        mTemplate = "";
+        mArgs = NO_ARGS;
+        mTimeNanos = 0;
+        mThreadId = 0;
+        mThreadName = "";
+    }
+
+    public LogManager.Level getLevel() {
+        return mLevel;
+    }
+
+    public String getPrefix() {
+        return mPrefix;
+    }
+
+    public String getTemplate() {
+        return mTemplate;
+    }
+
+    public Object[] getArgs() {
+        return mArgs;
+    }
+
+    public long getTimeMillis() {
+        return mTimeNanos / 1000000;
+    }
+
+    public long getTimeNanos() {
+        return mTimeNanos;
+    }
+
+    public long getThreadId() {
+        return mThreadId;
+    }
+
+    public String getThreadName() {
+        return mThreadName;
+    }
+}
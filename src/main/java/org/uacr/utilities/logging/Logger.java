@@ -2,6 +2,8 @@ package org.uacr.utilities.logging;
 
 /**
  * Handles the log messages of a single class
+ * Calls with up to four arguments check the logging level before the varargs array is created, so disabled calls do not allocate
+ * Use isTraceEnabled or isDebugEnabled to skip building expensive arguments
  */
 
 public class Logger {
@@ -9,25 +11,188 @@ public class Logger {
     private final LogManager fLogManager;
     private final String fPrefix;
 
+    // Resolved from the global level and the overrides for the prefix by the LogManager whenever they change
+    private volatile LogManager.Level mLevel;
+
     protected Logger(LogManager logManager, String prefix) {
         fLogManager = logManager;
         fPrefix = prefix;
+
+        mLevel = logManager.resolveLevel(prefix);
+    }
+
+    /**
+     * @return the prefix added to every message of this logger
+     */
+    public String getPrefix() {
+        return fPrefix;
+    }
+
+    /**
+     * @return the level messages must be at or above to be logged
+     */
+    public LogManager.Level getLevel() {
+        return mLevel;
+    }
+
+    public boolean isEnabled(LogManager.Level level) {
+        return mLevel.getPriority() <= level.getPriority();
+    }
+
+    public boolean isTraceEnabled() {
+        return isEnabled(LogManager.Level.TRACE);
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(LogManager.Level.DEBUG);
+    }
+
+    public boolean isInfoEnabled() {
+        return isEnabled(LogManager.Level.INFO);
+    }
+
+    public void trace(String message) {
+        if (isEnabled(LogManager.Level.TRACE)) {
+            fLogManager.write(LogManager.Level.TRACE, fPrefix, message);
+        }
+    }
+
+    public void trace(String message, Object arg1) {
+        if (isEnabled(LogManager.Level.TRACE)) {
+            fLogManager.write(LogManager.Level.TRACE, fPrefix, message, arg1);
+        }
+    }
+
+    public void trace(String message, Object arg1, Object arg2) {
+        if (isEnabled(LogManager.Level.TRACE)) {
+            fLogManager.write(LogManager.Level.TRACE, fPrefix, message, arg1, arg2);
+        }
+    }
+
+    public void trace(String message, Object arg1, Object arg2, Object arg3) {
+        if (isEnabled(LogManager.Level.TRACE)) {
+            fLogManager.write(LogManager.Level.TRACE, fPrefix, message, arg1, arg2, arg3);
+        }
+    }
+
+    public void trace(String message, Object arg1, Object arg2, Object arg3, Object arg4) {
+        if (isEnabled(LogManager.Level.TRACE)) {
+            fLogManager.write(LogManager.Level.TRACE, fPrefix, message, arg1, arg2, arg3, arg4);
+        }
     }
 
     public void trace(String message, Object... args) {
-        fLogManager.log(LogManager.Level.TRACE, fPrefix, message, args);
+        if (isEnabled(LogManager.Level.TRACE)) {
+            fLogManager.write(LogManager.Level.TRACE, fPrefix, message, args);
+        }
+    }
+
+    public void debug(String message) {
+        if (isEnabled(LogManager.Level.DEBUG)) {
+            fLogManager.write(LogManager.Level.DEBUG, fPrefix, message);
+        }
+    }
+
+    public void debug(String message, Object arg1) {
+        if (isEnabled(LogManager.Level.DEBUG)) {
+            fLogManager.write(LogManager.Level.DEBUG, fPrefix, message, arg1);
+        }
+    }
+
+    public void debug(String message, Object arg1, Object arg2) {
+        if (isEnabled(LogManager.Level.DEBUG)) {
+            fLogManager.write(LogManager.Level.DEBUG, fPrefix, message, arg1, arg2);
+        }
+    }
+
+    public void debug(String message, Object arg1, Object arg2, Object arg3) {
+        if (isEnabled(LogManager.Level.DEBUG)) {
+            fLogManager.write(LogManager.Level.DEBUG, fPrefix, message, arg1, arg2, arg3);
+        }
+    }
+
+    public void debug(String message, Object arg1, Object arg2, Object arg3, Object arg4) {
+        if (isEnabled(LogManager.Level.DEBUG)) {
+            fLogManager.write(LogManager.Level.DEBUG, fPrefix, message, arg1, arg2, arg3, arg4);
+        }
     }
 
     public void debug(String message, Object... args) {
-        fLogManager.log(LogManager.Level.DEBUG, fPrefix, message, args);
+        if (isEnabled(LogManager.Level.DEBUG)) {
+            fLogManager.write(LogManager.Level.DEBUG, fPrefix, message, args);
+        }
+    }
+
+    public void info(String message) {
+        if (isEnabled(LogManager.Level.INFO)) {
+            fLogManager.write(LogManager.Level.INFO, fPrefix, message);
+        }
+    }
+
+    public void info(String message, Object arg1) {
+        if (isEnabled(LogManager.Level.INFO)) {
+            fLogManager.write(LogManager.Level.INFO, fPrefix, message, arg1);
+        }
+    }
+
+    public void info(String message, Object arg1, Object arg2) {
+        if (isEnabled(LogManager.Level.INFO)) {
+            fLogManager.write(LogManager.Level.INFO, fPrefix, message, arg1, arg2);
+        }
+    }
+
+    public void info(String message, Object arg1, Object arg2, Object arg3) {
+        if (isEnabled(LogManager.Level.INFO)) {
+            fLogManager.write(LogManager.Level.INFO, fPrefix, message, arg1, arg2, arg3);
+        }
+    }
+
+    public void info(String message, Object arg1, Object arg2, Object arg3, Object arg4) {
+        if (isEnabled(LogManager.Level.INFO)) {
+            fLogManager.write(LogManager.Level.INFO, fPrefix, message, arg1, arg2, arg3, arg4);
+        }
     }
 
     public void info(String message, Object... args) {
-        fLogManager.log(LogManager.Level.INFO, fPrefix, message, args);
+        if (isEnabled(LogManager.Level.INFO)) {
+            fLogManager.write(LogManager.Level.INFO, fPrefix, message, args);
+        }
+    }
+
+    public void error(String message) {
+        if (isEnabled(LogManager.Level.ERROR)) {
+            fLogManager.write(LogManager.Level.ERROR, fPrefix, message);
+        }
+    }
+
+    public void error(String message, Object arg1) {
+        if (isEnabled(LogManager.Level.ERROR)) {
+            fLogManager.write(LogManager.Level.ERROR, fPrefix, message, arg1);
+        }
+    }
+
+    public void error(String message, Object arg1, Object arg2) {
+        if (isEnabled(LogManager.Level.ERROR)) {
+            fLogManager.write(LogManager.Level.ERROR, fPrefix, message, arg1, arg2);
+        }
+    }
+
+    public void error(String message, Object arg1, Object arg2, Object arg3) {
+        if (isEnabled(LogManager.Level.ERROR)) {
+            fLogManager.write(LogManager.Level.ERROR, fPrefix, message, arg1, arg2, arg3);
+        }
+    }
+
+    public void error(String message, Object arg1, Object arg2, Object arg3, Object arg4) {
+        if (isEnabled(LogManager.Level.ERROR)) {
+            fLogManager.write(LogManager.Level.ERROR, fPrefix, message, arg1, arg2, arg3, arg4);
+        }
     }
 
     public void error(String message, Object... args) {
-        fLogManager.log(LogManager.Level.ERROR, fPrefix, message, args);
+        if (isEnabled(LogManager.Level.ERROR)) {
+            fLogManager.write(LogManager.Level.ERROR, fPrefix, message, args);
+        }
     }
 
     public void error(Exception message, Object... args) {
@@ -35,6 +200,12 @@ public class Logger {
     }
 
     public void log(LogManager.Level level, String message, Object... args) {
-        fLogManager.log(level, fPrefix, message, args);
+        if (isEnabled(level)) {
+            fLogManager.write(level, fPrefix, message, args);
+        }
+    }
+
+    void updateLevel() {
+        mLevel = fLogManager.resolveLevel(fPrefix);
     }
-}
\ No newline at end of file
+}
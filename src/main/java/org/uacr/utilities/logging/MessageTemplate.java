@@ -0,0 +1,97 @@
+package org.uacr.utilities.logging;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A log message split on its "{}" placeholders once and cached, so formatting a message does not run a regex
+ * Messages are formatted into a StringBuilder reused by each thread
+ */
+
+public class MessageTemplate {
+
+    // Messages built at runtime would grow the cache forever, so once it is full new messages are parsed every time
+    private static final int MAX_CACHED_TEMPLATES = 4096;
+    // A builder that grew past this size for one huge message is replaced instead of kept by the thread
+    private static final int MAX_RETAINED_CAPACITY = 4096;
+
+    private static final Map<String, MessageTemplate> sTemplates = new ConcurrentHashMap<>();
+    private static final ThreadLocal<StringBuilder> sBuilders = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final String fMessage;
+    private final String[] fParts;
+
+    private MessageTemplate(String message) {
+        fMessage = message;
+
+        // A trailing placeholder is padded so split keeps the empty part after it
+        fParts = (message.endsWith("{}") ? message + " " : message).split("\\{\\}");
+    }
+
+    /**
+     * @param message the message with "{}" placeholders
+     * @return the parsed template of the message
+     */
+    public static MessageTemplate get(String message) {
+        MessageTemplate template = sTemplates.get(message);
+        if (template != null) {
+            return template;
+        }
+
+        template = new MessageTemplate(message);
+        if (sTemplates.size() < MAX_CACHED_TEMPLATES) {
+            sTemplates.put(message, template);
+        }
+        return template;
+    }
+
+    /**
+     * @return the message the template was parsed from
+     */
+    public String getMessage() {
+        return fMessage;
+    }
+
+    /**
+     * @return the number of placeholders in the message
+     */
+    public int getPlaceholderCount() {
+        return fParts.length - 1;
+    }
+
+    /**
+     * Replaces each placeholder with the matching argument, placeholders without an argument are left empty and extra arguments are ignored
+     * Leading and trailing whitespace is removed from the result
+     *
+     * @param args the arguments to insert
+     * @return the formatted message
+     */
+    public String format(Object[] args) {
+        StringBuilder line = sBuilders.get();
+        line.setLength(0);
+
+        for (int p = 0; p < fParts.length - 1; p++) {
+            line.append(fParts[p]);
+            if (p < args.length) {
+                line.append(args[p]);
+            }
+        }
+        line.append(fParts[fParts.length - 1]);
+
+        int start = 0;
+        int end = line.length();
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        String message = line.substring(start, end);
+
+        if (line.capacity() > MAX_RETAINED_CAPACITY) {
+            sBuilders.remove();
+        }
+
+        return message;
+    }
+}
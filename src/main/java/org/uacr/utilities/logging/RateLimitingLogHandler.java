@@ -0,0 +1,206 @@
+package org.uacr.utilities.logging;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Wraps another log handler and collapses messages logged from the same template by the same logger within a window,
+ * such as a frame time warning logged on every slow frame
+ * The first message of a window is passed on, the rest are counted and summarized as "repeated N times" when the window ends
+ * <p>
+ * Windows are set per logger prefix, a logger uses the window of the longest prefix it starts with or the default window,
+ * a window of zero passes every message through
+ * <p>
+ * Summaries of messages that stopped repeating are otherwise only written when another message is logged,
+ * so flushEndedWindows should be called on a timer and flush when logging stops
+ */
+
+public class RateLimitingLogHandler implements StructuredLogHandler {
+
+    private final LogHandler fDelegate;
+    private final long fDefaultWindowNanos;
+    private final Map<String, Long> fPrefixWindowNanos;
+    private final Map<String, Long> fResolvedWindowNanos;
+    private final Map<String, Map<String, Repeat>> fRepeats;
+
+    private long mLastSweepNanos;
+
+    /**
+     * @param delegate        the handler that receives the messages that are not suppressed and the summaries
+     * @param defaultWindowMs the window for loggers without a prefix window in milliseconds
+     */
+    public RateLimitingLogHandler(LogHandler delegate, long defaultWindowMs) {
+        fDelegate = delegate;
+        fDefaultWindowNanos = defaultWindowMs * 1000000;
+        fPrefixWindowNanos = new HashMap<>();
+        fResolvedWindowNanos = new HashMap<>();
+        fRepeats = new HashMap<>();
+
+        mLastSweepNanos = 0;
+    }
+
+    /**
+     * @param prefix   the start of the logger prefixes, such as "StatesService"
+     * @param windowMs the window for those loggers in milliseconds, zero to never suppress their messages
+     */
+    public synchronized void setWindow(String prefix, long windowMs) {
+        fPrefixWindowNanos.put(prefix, windowMs * 1000000);
+        fResolvedWindowNanos.clear();
+    }
+
+    @Override
+    public synchronized void handle(LogRecord record) {
+        long now = record.getTimeNanos();
+
+        // Summaries of messages that stopped repeating are written at most once per default window
+        if (now - mLastSweepNanos >= Math.max(fDefaultWindowNanos, 1000000)) {
+            sweep(now);
+            mLastSweepNanos = now;
+        }
+
+        long window = getWindowNanos(record.getPrefix());
+        if (window <= 0) {
+            pass(record);
+            return;
+        }
+
+        Map<String, Repeat> templates = fRepeats.computeIfAbsent(record.getPrefix(), prefix -> new HashMap<>());
+        Repeat repeat = templates.get(record.getTemplate());
+
+        if (repeat == null) {
+            templates.put(record.getTemplate(), new Repeat(now, window));
+            pass(record);
+        } else if (now - repeat.fWindowStartNanos >= window) {
+            summarize(repeat);
+            templates.put(record.getTemplate(), new Repeat(now, window));
+            pass(record);
+        } else {
+            repeat.suppress(record);
+        }
+    }
+
+    /**
+     * Writes the summaries of windows that have ended, without waiting for the next message to be logged
+     */
+    public synchronized void flushEndedWindows() {
+        long now = LogRecord.currentTimeNanos();
+        sweep(now);
+        mLastSweepNanos = now;
+    }
+
+    /**
+     * Writes the summaries of every message that has been suppressed so far
+     */
+    public synchronized void flush() {
+        for (Map<String, Repeat> templates : fRepeats.values()) {
+            for (Repeat repeat : templates.values()) {
+                summarize(repeat);
+            }
+        }
+        fRepeats.clear();
+    }
+
+    /**
+     * Writes the summaries of windows that have ended and forgets them
+     */
+    private void sweep(long now) {
+        for (Iterator<Map<String, Repeat>> templates = fRepeats.values().iterator(); templates.hasNext(); ) {
+            Map<String, Repeat> repeats = templates.next();
+
+            for (Iterator<Repeat> iterator = repeats.values().iterator(); iterator.hasNext(); ) {
+                Repeat repeat = iterator.next();
+                if (now - repeat.fWindowStartNanos >= repeat.fWindowNanos) {
+                    summarize(repeat);
+                    iterator.remove();
+                }
+            }
+
+            if (repeats.isEmpty()) {
+                templates.remove();
+            }
+        }
+    }
+
+    private void summarize(Repeat repeat) {
+        LogRecord last = repeat.mLastSuppressed;
+        if (last == null) {
+            return;
+        }
+
+        LogRecord summary = new LogRecord();
+        summary.set(last.getLevel(), last.getPrefix(), "{} (repeated {} times)", new Object[]{MessageTemplate.get(last.getTemplate()).format(last.getArgs()), repeat.mCount},
+                last.getTimeNanos(), last.getThreadId(), last.getThreadName());
+        pass(summary);
+    }
+
+    private void pass(LogRecord record) {
+        if (fDelegate instanceof StructuredLogHandler) {
+            ((StructuredLogHandler) fDelegate).handle(record);
+            return;
+        }
+
+        String line = LogManager.formatLine(record);
+        switch (record.getLevel()) {
+            case TRACE:
+                fDelegate.trace(line);
+                break;
+            case DEBUG:
+                fDelegate.debug(line);
+                break;
+            case INFO:
+                fDelegate.info(line);
+                break;
+            case ERROR:
+                fDelegate.error(line);
+                break;
+        }
+    }
+
+    private long getWindowNanos(String prefix) {
+        Long window = fResolvedWindowNanos.get(prefix);
+        if (window == null) {
+            window = fDefaultWindowNanos;
+            int matchLength = -1;
+            for (Map.Entry<String, Long> prefixWindow : fPrefixWindowNanos.entrySet()) {
+                if (prefix.startsWith(prefixWindow.getKey()) && prefixWindow.getKey().length() > matchLength) {
+                    window = prefixWindow.getValue();
+                    matchLength = prefixWindow.getKey().length();
+                }
+            }
+            fResolvedWindowNanos.put(prefix, window);
+        }
+        return window;
+    }
+
+    /**
+     * The messages suppressed for one template of one logger in the current window
+     */
+    private static class Repeat {
+
+        private final long fWindowStartNanos;
+        private final long fWindowNanos;
+
+        private int mCount;
+        @Nullable
+        private LogRecord mLastSuppressed;
+
+        private Repeat(long windowStartNanos, long windowNanos) {
+            fWindowStartNanos = windowStartNanos;
+            fWindowNanos = windowNanos;
+            mCount = 0;
+            mLastSuppressed = null;
+        }
+
+        // Copies the record since records are reused after they are handled
+        private void suppress(LogRecord record) {
+            if (mLastSuppressed == null) {
+                mLastSuppressed = new LogRecord();
+            }
+            mLastSuppressed.set(record.getLevel(), record.getPrefix(), record.getTemplate(), record.getArgs().clone(),
+                    record.getTimeNanos(), record.getThreadId(), record.getThreadName());
+            mCount++;
+        }
+    }
+}
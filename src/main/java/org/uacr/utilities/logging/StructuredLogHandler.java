@@ -0,0 +1,33 @@
+package org.uacr.utilities.logging;
+
+/**
+ * Handles log records before they are formatted, so the message does not need to be built as a string
+ * The LogManager calls handle instead of the text methods for handlers that implement this interface
+ */
+
+public interface StructuredLogHandler extends LogHandler {
+
+    /**
+     * Called on the thread that logged the message, or on the writer thread in async mode
+     * The record may be reused once this returns, so it must not be kept
+     *
+     * @param record the log record
+     */
+    void handle(LogRecord record);
+
+    @Override
+    default void trace(String message) {
+    }
+
+    @Override
+    default void debug(String message) {
+    }
+
+    @Override
+    default void info(String message) {
+    }
+
+    @Override
+    default void error(String message) {
+    }
+}
@@ -0,0 +1,80 @@
+package org.uacr.utilities.profiling;
+
+/**
+ * Holds the timing histograms for each phase of a single behavior (or the StateMachine)
+ * Created and shared through the BehaviorProfiler
+ */
+
+public class BehaviorProfile {
+
+    private final String fName;
+    private final TimingHistogram[] fHistograms;
+
+    BehaviorProfile(String name) {
+        fName = name;
+
+        BehaviorProfiler.Phase[] phases = BehaviorProfiler.Phase.values();
+        fHistograms = new TimingHistogram[phases.length];
+        for (int p = 0; p < phases.length; p++) {
+            fHistograms[p] = new TimingHistogram();
+        }
+    }
+
+    /**
+     * Called before the profiled call
+     *
+     * @param phase the phase being profiled
+     * @return the start time to pass to stop, or -1 if this call is not being timed
+     */
+    public long start(BehaviorProfiler.Phase phase) {
+        BehaviorProfiler.Mode mode = BehaviorProfiler.getMode();
+        if (mode == BehaviorProfiler.Mode.OFF) {
+            return -1;
+        }
+
+        long calls = fHistograms[phase.ordinal()].countCall();
+        if (mode == BehaviorProfiler.Mode.SAMPLED && calls % BehaviorProfiler.getSampleRate() != 0) {
+            return -1;
+        }
+
+        return System.nanoTime();
+    }
+
+    /**
+     * Called after the profiled call
+     *
+     * @param phase     the phase being profiled
+     * @param startTime the value returned by start
+     */
+    public void stop(BehaviorProfiler.Phase phase, long startTime) {
+        if (startTime < 0) {
+            return;
+        }
+
+        fHistograms[phase.ordinal()].record(System.nanoTime() - startTime);
+    }
+
+    /**
+     * @return the name of the behavior
+     */
+    public String getName() {
+        return fName;
+    }
+
+    /**
+     * @param phase the phase
+     * @return the histogram for the phase
+     */
+    public TimingHistogram getHistogram(BehaviorProfiler.Phase phase) {
+        return fHistograms[phase.ordinal()];
+    }
+
+    /**
+     * Clears all recorded timings
+     */
+    void reset() {
+        for (TimingHistogram histogram : fHistograms) {
+            histogram.reset();
+        }
+    }
+}
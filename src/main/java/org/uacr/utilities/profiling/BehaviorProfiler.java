@@ -0,0 +1,105 @@
+package org.uacr.utilities.profiling;
+
+import org.uacr.utilities.logging.LogManager;
+import org.uacr.utilities.logging.Logger;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records how long each behavior spends in initialize, update, isDone and dispose
+ * Off by default, the sampled mode only times one in every sample rate calls so it can be left on in competition
+ */
+
+public class BehaviorProfiler {
+
+    private static final Logger sLogger = LogManager.getLogger(BehaviorProfiler.class);
+
+    private static final Map<String, BehaviorProfile> sProfiles = new ConcurrentHashMap<>();
+
+    private static volatile Mode sMode = Mode.OFF;
+    private static volatile int sSampleRate = 16;
+
+    /**
+     * @param name the name of the behavior
+     * @return the profile for the behavior, creating it if necessary
+     */
+    public static BehaviorProfile getProfile(String name) {
+        return sProfiles.computeIfAbsent(name, BehaviorProfile::new);
+    }
+
+    public static Mode getMode() {
+        return sMode;
+    }
+
+    public static void setMode(Mode mode) {
+        sMode = mode;
+        sLogger.debug("Behavior profiling set to '{}'", mode);
+    }
+
+    public static int getSampleRate() {
+        return sSampleRate;
+    }
+
+    /**
+     * @param sampleRate in sampled mode one in every sampleRate calls is timed
+     */
+    public static void setSampleRate(int sampleRate) {
+        sSampleRate = Math.max(1, sampleRate);
+    }
+
+    /**
+     * Clears the recorded timings of every behavior
+     */
+    public static void reset() {
+        for (BehaviorProfile profile : sProfiles.values()) {
+            profile.reset();
+        }
+    }
+
+    /**
+     * @return a table of the calls and timings in microseconds of every behavior and phase that has been called
+     */
+    public static String getReport() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-40s %-10s %10s %10s %10s %10s %10s %10s%n", "behavior", "phase", "calls", "samples", "mean us", "p50 us", "p99 us", "max us"));
+
+        for (BehaviorProfile profile : new TreeMap<>(sProfiles).values()) {
+            for (Phase phase : Phase.values()) {
+                TimingHistogram histogram = profile.getHistogram(phase);
+                if (histogram.getCalls() == 0) {
+                    continue;
+                }
+
+                report.append(String.format("%-40s %-10s %10d %10d %10.1f %10.1f %10.1f %10.1f%n", profile.getName(), phase, histogram.getCalls(), histogram.getSamples(),
+                        histogram.getMeanNanos() / 1000.0, histogram.getPercentileNanos(0.5) / 1000.0, histogram.getPercentileNanos(0.99) / 1000.0, histogram.getMaxNanos() / 1000.0));
+            }
+        }
+
+        return report.toString();
+    }
+
+    /**
+     * Logs the report if profiling is turned on
+     */
+    public static void logReport() {
+        if (sMode != Mode.OFF) {
+            sLogger.info("Behavior profile\n{}", getReport());
+        }
+    }
+
+    public enum Mode {
+        OFF,
+        SAMPLED,
+        FULL
+    }
+
+    public enum Phase {
+        ARBITRATE,
+        INITIALIZE,
+        UPDATE,
+        IS_DONE,
+        DISPOSE
+    }
+}
@@ -0,0 +1,141 @@
+package org.uacr.utilities.profiling;
+
+import org.uacr.utilities.logging.LogManager;
+import org.uacr.utilities.logging.Logger;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often each config value is read, by which method, and how long the reads take
+ * Reads made while a service is in runOneIteration are counted separately, those usually belong in startUp or a constructor
+ * Off by default, configs and the robot configuration are only instrumented when it is turned on before they are created
+ * <p>
+ * Finding the calling method walks the stack on every read, so this is meant for finding hot spots rather than for competition
+ */
+
+public class ConfigAccessProfiler {
+
+    private static final Logger sLogger = LogManager.getLogger(ConfigAccessProfiler.class);
+
+    // Classes skipped when finding the method that read the value
+    private static final String[] sIgnoredCallers = {
+            "org.uacr.utilities.Config",
+            "org.uacr.utilities.CompiledConfig",
+            "org.uacr.utilities.profiling.",
+            "org.uacr.shared.concretions.ProfiledRobotConfiguration"
+    };
+
+    private static final Map<List<String>, AccessStats> sStats = new ConcurrentHashMap<>();
+    private static final ThreadLocal<int[]> sFrameDepth = ThreadLocal.withInitial(() -> new int[1]);
+
+    private static volatile boolean sEnabled = false;
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+        sLogger.debug("Config access profiling set to '{}'", enabled);
+    }
+
+    /**
+     * Marks the calling thread as running a frame, called by the ServiceWrapper around runOneIteration
+     */
+    public static void enterFrame() {
+        sFrameDepth.get()[0]++;
+    }
+
+    public static void exitFrame() {
+        int[] depth = sFrameDepth.get();
+        depth[0] = Math.max(0, depth[0] - 1);
+    }
+
+    /**
+     * @return whether the calling thread is in runOneIteration
+     */
+    public static boolean isInFrame() {
+        return sFrameDepth.get()[0] > 0;
+    }
+
+    /**
+     * Records one read of a config value
+     * @param source the config the value was read from, such as a state name or robot configuration category
+     * @param key the key of the value
+     * @param startNanos the System.nanoTime() when the read started
+     */
+    public static void record(String source, String key, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+
+        AccessStats stats = sStats.computeIfAbsent(Arrays.asList(source, key, findCaller()), k -> new AccessStats());
+        stats.fCalls.increment();
+        stats.fNanos.add(nanos);
+        if (isInFrame()) {
+            stats.fFrameCalls.increment();
+        }
+    }
+
+    /**
+     * Clears every recorded read
+     */
+    public static void reset() {
+        sStats.clear();
+    }
+
+    /**
+     * @return a table of every value that has been read and by what method, values read in runOneIteration first and then by the number of reads
+     */
+    public static String getReport() {
+        List<Map.Entry<List<String>, AccessStats>> entries = new ArrayList<>(sStats.entrySet());
+        entries.sort(Comparator.<Map.Entry<List<String>, AccessStats>>comparingLong(entry -> -entry.getValue().fFrameCalls.sum())
+                .thenComparingLong(entry -> -entry.getValue().fCalls.sum()));
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-30s %-30s %-50s %10s %10s %12s%n", "config", "key", "caller", "reads", "in frame", "total us"));
+
+        for (Map.Entry<List<String>, AccessStats> entry : entries) {
+            AccessStats stats = entry.getValue();
+            report.append(String.format("%-30s %-30s %-50s %10d %10d %12.1f%n", entry.getKey().get(0), entry.getKey().get(1), entry.getKey().get(2),
+                    stats.fCalls.sum(), stats.fFrameCalls.sum(), stats.fNanos.sum() / 1000.0));
+        }
+
+        return report.toString();
+    }
+
+    /**
+     * Logs the report if profiling is turned on
+     */
+    public static void logReport() {
+        if (sEnabled) {
+            sLogger.info("Config access profile\n{}", getReport());
+        }
+    }
+
+    private static String findCaller() {
+        for (StackTraceElement element : new Throwable().getStackTrace()) {
+            if (!isIgnoredCaller(element.getClassName())) {
+                String className = element.getClassName();
+                return className.substring(className.lastIndexOf('.') + 1) + "." + element.getMethodName();
+            }
+        }
+        return "unknown";
+    }
+
+    private static boolean isIgnoredCaller(String className) {
+        for (String ignoredCaller : sIgnoredCallers) {
+            if (className.startsWith(ignoredCaller)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class AccessStats {
+
+        private final LongAdder fCalls = new LongAdder();
+        private final LongAdder fFrameCalls = new LongAdder();
+        private final LongAdder fNanos = new LongAdder();
+    }
+}
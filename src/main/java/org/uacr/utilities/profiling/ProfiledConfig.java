@@ -0,0 +1,173 @@
+package org.uacr.utilities.profiling;
+
+import org.uacr.utilities.Config;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Config that records every read with the ConfigAccessProfiler
+ * Created by the YamlConfigParser instead of a Config while config access profiling is on
+ */
+
+public class ProfiledConfig extends Config {
+
+    private final String fSource;
+
+    /**
+     * @param source the name shown in the profiler report, such as the name of the state
+     * @param type the type of object (the category it is listed under in the config file)
+     * @param data the configuration data for the object
+     */
+    public ProfiledConfig(String source, String type, @Nullable Map data) {
+        super(type, data);
+
+        fSource = source;
+    }
+
+    // getEnum is not overridden since it reads the value with getString
+
+    @Override
+    public Object get(String key) {
+        long startTime = System.nanoTime();
+        try {
+            return super.get(key);
+        } finally {
+            ConfigAccessProfiler.record(fSource, key, startTime);
+        }
+    }
+
+    @Override
+    public Object get(String key, Object defaultValue) {
+        long startTime = System.nanoTime();
+        try {
+            return super.get(key, defaultValue);
+        } finally {
+            ConfigAccessProfiler.record(fSource, key, startTime);
+        }
+    }
+
+    @Override
+    public int getInt(String key) {
+        long startTime = System.nanoTime();
+        try {
+            return super.getInt(key);
+        } finally {
+            ConfigAccessProfiler.record(fSource, key, startTime);
+        }
+    }
+
+    @Override
+    public int getInt(String key, int defaultValue) {
+        long startTime = System.nanoTime();
+        try {
+            return super.getInt(key, defaultValue);
+        } finally {
+            ConfigAccessProfiler.record(fSource, key, startTime);
+        }
+    }
+
+    @Override
+    public double getDouble(String key) {
+        long startTime = System.nanoTime();
+        try {
+            return super.getDouble(key);
+        } finally {
+            ConfigAccessProfiler.record(fSource, key, startTime);
+        }
+    }
+
+    @Override
+    public double getDouble(String key, double defaultValue) {
+        long startTime = System.nanoTime();
+        try {
+            return super.getDouble(key, defaultValue);
+        } finally {
+            ConfigAccessProfiler.record(fSource, key, startTime);
+        }
+    }
+
+    @Override
+    public boolean getBoolean(String key) {
+        long startTime = System.nanoTime();
+        try {
+            return super.getBoolean(key);
+        } finally {
+            ConfigAccessProfiler.record(fSource, key, startTime);
+        }
+    }
+
+    @Override
+    public boolean getBoolean(String key, boolean defaultValue) {
+        long startTime = System.nanoTime();
+        try {
+            return super.getBoolean(key, defaultValue);
+        } finally {
+            ConfigAccessProfiler.record(fSource, key, startTime);
+        }
+    }
+
+    @Override
+    public String getString(String key) {
+        long startTime = System.nanoTime();
+        try {
+            return super.getString(key);
+        } finally {
+            ConfigAccessProfiler.record(fSource, key, startTime);
+        }
+    }
+
+    @Override
+    public String getString(String key, String defaultValue) {
+        long startTime = System.nanoTime();
+        try {
+            return super.getString(key, defaultValue);
+        } finally {
+            ConfigAccessProfiler.record(fSource, key, startTime);
+        }
+    }
+
+    @Override
+    public List getList(String key) {
+        long startTime = System.nanoTime();
+        try {
+            return super.getList(key);
+        } finally {
+            ConfigAccessProfiler.record(fSource, key, startTime);
+        }
+    }
+
+    @Override
+    public List getList(String key, List defaultValue) {
+        long startTime = System.nanoTime();
+        try {
+            return super.getList(key, defaultValue);
+        } finally {
+            ConfigAccessProfiler.record(fSource, key, startTime);
+        }
+    }
+
+    /**
+     * @return a ProfiledConfig so reads from the sub config are recorded under this config's source and the key
+     */
+    @Override
+    public Config getSubConfig(String key, String type) {
+        long startTime = System.nanoTime();
+        try {
+            return new ProfiledConfig(fSource + "." + key, type, super.getSubConfig(key, type).getData());
+        } finally {
+            ConfigAccessProfiler.record(fSource, key, startTime);
+        }
+    }
+
+    @Override
+    public boolean contains(String key) {
+        long startTime = System.nanoTime();
+        try {
+            return super.contains(key);
+        } finally {
+            ConfigAccessProfiler.record(fSource, key, startTime);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.uacr.utilities.profiling;
+
+/**
+ * Records call counts and a power of two histogram of durations in nanoseconds
+ * Calls are always counted, durations are only recorded for calls that were sampled
+ */
+
+public class TimingHistogram {
+
+    private static final int BUCKETS = 40;
+
+    private final long[] fBuckets;
+
+    private long mCalls;
+    private long mSamples;
+    private long mTotalNanos;
+    private long mMaxNanos;
+
+    public TimingHistogram() {
+        fBuckets = new long[BUCKETS];
+
+        mCalls = 0;
+        mSamples = 0;
+        mTotalNanos = 0;
+        mMaxNanos = 0;
+    }
+
+    /**
+     * Counts a call, this is not synchronized since a slightly low count is acceptable for a profiler
+     *
+     * @return the number of calls including this one
+     */
+    long countCall() {
+        return ++mCalls;
+    }
+
+    /**
+     * Records the duration of a sampled call
+     *
+     * @param nanos the duration of the call in nanoseconds
+     */
+    synchronized void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+
+        mSamples++;
+        mTotalNanos += nanos;
+        if (nanos > mMaxNanos) {
+            mMaxNanos = nanos;
+        }
+
+        // Bucket n holds durations from 2^n up to 2^(n + 1) nanoseconds
+        int bucket = nanos == 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+        fBuckets[Math.min(bucket, BUCKETS - 1)]++;
+    }
+
+    /**
+     * @return the number of times the profiled call was made
+     */
+    public long getCalls() {
+        return mCalls;
+    }
+
+    /**
+     * @return the number of calls whose duration was recorded
+     */
+    public synchronized long getSamples() {
+        return mSamples;
+    }
+
+    /**
+     * @return the mean duration of the sampled calls in nanoseconds
+     */
+    public synchronized double getMeanNanos() {
+        return mSamples == 0 ? 0.0 : (double) mTotalNanos / mSamples;
+    }
+
+    /**
+     * @return the longest sampled call in nanoseconds
+     */
+    public synchronized long getMaxNanos() {
+        return mMaxNanos;
+    }
+
+    /**
+     * @param percentile the percentile between 0.0 and 1.0
+     * @return the upper bound of the histogram bucket containing the percentile in nanoseconds
+     */
+    public synchronized long getPercentileNanos(double percentile) {
+        long target = (long) Math.ceil(mSamples * percentile);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += fBuckets[b];
+            if (seen >= target && seen > 0) {
+                return Math.min(1L << (b + 1), mMaxNanos);
+            }
+        }
+        return mMaxNanos;
+    }
+
+    /**
+     * Clears all recorded calls and durations
+     */
+    synchronized void reset() {
+        for (int b = 0; b < BUCKETS; b++) {
+            fBuckets[b] = 0;
+        }
+        mCalls = 0;
+        mSamples = 0;
+        mTotalNanos = 0;
+        mMaxNanos = 0;
+    }
+}
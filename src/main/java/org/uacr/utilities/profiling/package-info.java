@@ -0,0 +1,4 @@
+@NonNullByDefault
+package org.uacr.utilities.profiling;
+
+import org.uacr.NonNullByDefault;
\ No newline at end of file
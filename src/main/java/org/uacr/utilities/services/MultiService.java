@@ -3,17 +3,29 @@ package org.uacr.utilities.services;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Runs multiple services at one time
+ * Services can optionally start up at the same time, with dependencies making a service wait for others to start first
  */
 
 public class MultiService implements Service {
 
     private final List<Service> fServices;
+    private final ParallelStartUp fParallelStartUp;
+
+    private boolean mIsParallelStartUp;
 
     public MultiService(List<Service> services) {
         fServices = services;
+        fParallelStartUp = new ParallelStartUp();
+        mIsParallelStartUp = false;
+
+        for (Service service : fServices) {
+            fParallelStartUp.add(service, service.getClass().getSimpleName(), service::startUp);
+        }
     }
 
     public MultiService(Service... services) {
@@ -21,13 +33,43 @@ public class MultiService implements Service {
     }
 
     /**
-     * Starts up all services handled by this multiService in a single thread
+     * @param parallelStartUp whether the services start up at the same time on their own threads instead of one after another
+     */
+    public void setParallelStartUp(boolean parallelStartUp) {
+        mIsParallelStartUp = parallelStartUp;
+    }
+
+    /**
+     * Makes a service wait for another service to start up when starting up in parallel
+     * @param service the service that waits
+     * @param dependency the service that has to start up first
+     */
+    public void addStartUpDependency(Service service, Service dependency) {
+        fParallelStartUp.addDependency(service, dependency);
+    }
+
+    /**
+     * Starts up all services handled by this multiService in a single thread, or at the same time if parallel start up is on
      */
     @Override
     public void startUp() throws Exception {
+        if (mIsParallelStartUp) {
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, fServices.size()));
+            try {
+                fParallelStartUp.run(executor);
+            } finally {
+                executor.shutdown();
+            }
+            return;
+        }
+
         for (Service service : fServices) {
-            Thread.currentThread().setName(service.getClass().getSimpleName());
+            String name = service.getClass().getSimpleName();
+            Thread.currentThread().setName(name);
+
+            long startNanos = System.nanoTime();
             service.startUp();
+            StartUpReport.record(name, startNanos, System.nanoTime());
         }
     }
 
@@ -0,0 +1,144 @@
+package org.uacr.utilities.services;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Starts up a group of components on an executor, each component starts as soon as the components it depends on have started
+ * Components are keyed by identity of the object passed to add, such as a service
+ */
+
+public class ParallelStartUp {
+
+    private final Map<Object, Task> fTasks;
+
+    public ParallelStartUp() {
+        fTasks = new LinkedHashMap<>();
+    }
+
+    /**
+     * @param component the object the step starts up
+     * @param name the name used in the thread name and the start up report
+     * @param step starts up the component
+     */
+    public void add(Object component, String name, Step step) {
+        fTasks.put(component, new Task(name, step));
+    }
+
+    /**
+     * Makes a component wait for another component to finish starting up
+     * @param component the component that waits
+     * @param dependency the component that has to start first
+     */
+    public void addDependency(Object component, Object dependency) {
+        if (!fTasks.containsKey(dependency)) {
+            throw new IllegalArgumentException("Start up dependency " + dependency + " has not been added");
+        }
+
+        getTask(component).fDependencies.add(dependency);
+    }
+
+    /**
+     * Starts up every component and waits for them to finish
+     * If a component fails the components that depend on it are not started and the first failure is thrown once the rest have finished
+     * @param executor runs the start up steps, it needs a thread for each component that can start at the same time
+     */
+    public void run(Executor executor) throws Exception {
+        Map<Object, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+        for (Object component : fTasks.keySet()) {
+            schedule(component, executor, futures, new HashSet<>());
+        }
+
+        Throwable failure = null;
+        for (CompletableFuture<Void> future : futures.values()) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() != null ? e.getCause() : e;
+                }
+            }
+        }
+
+        if (failure instanceof Exception) {
+            throw (Exception) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+    }
+
+    // Creates the future for a component after the futures of its dependencies
+    private CompletableFuture<Void> schedule(Object component, Executor executor, Map<Object, CompletableFuture<Void>> futures, Set<Object> visiting) {
+        CompletableFuture<Void> future = futures.get(component);
+        if (future != null) {
+            return future;
+        }
+
+        Task task = getTask(component);
+        if (!visiting.add(component)) {
+            throw new IllegalStateException("Start up dependency cycle through " + task.fName);
+        }
+
+        List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+        for (Object dependency : task.fDependencies) {
+            dependencies.add(schedule(dependency, executor, futures, visiting));
+        }
+        visiting.remove(component);
+
+        future = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture[0])).thenRunAsync(task::run, executor);
+        futures.put(component, future);
+        return future;
+    }
+
+    private Task getTask(Object component) {
+        Task task = fTasks.get(component);
+        if (task == null) {
+            throw new IllegalArgumentException(component + " has not been added");
+        }
+        return task;
+    }
+
+    /**
+     * Starts up one component
+     */
+    @FunctionalInterface
+    public interface Step {
+        void startUp() throws Exception;
+    }
+
+    private static class Task {
+
+        private final String fName;
+        private final Step fStep;
+        private final List<Object> fDependencies;
+
+        private Task(String name, Step step) {
+            fName = name;
+            fStep = step;
+            fDependencies = new ArrayList<>();
+        }
+
+        private void run() {
+            Thread.currentThread().setName(fName);
+
+            long startNanos = System.nanoTime();
+            try {
+                fStep.startUp();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            } finally {
+                StartUpReport.record(fName, startNanos, System.nanoTime());
+            }
+        }
+    }
+}
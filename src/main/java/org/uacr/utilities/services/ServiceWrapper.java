@@ -1,5 +1,7 @@
 package org.uacr.utilities.services;
 
+import org.uacr.utilities.profiling.ConfigAccessProfiler;
+
 import javax.annotation.Nullable;
 
 /**
@@ -133,9 +135,18 @@ public class ServiceWrapper implements Service {
 
         mServiceState = ServiceState.RUNNING;
 
+        // Lets the config access profiler tell reads made every frame from reads made at start up
+        boolean profileConfigAccess = ConfigAccessProfiler.isEnabled();
+        if (profileConfigAccess) {
+            ConfigAccessProfiler.enterFrame();
+        }
+
         try {
             fService.runOneIteration();
         } finally {
+            if (profileConfigAccess) {
+                ConfigAccessProfiler.exitFrame();
+            }
             mIsCurrentlyRunning = false;
         }
     }
@@ -0,0 +1,97 @@
+package org.uacr.utilities.services;
+
+import org.uacr.utilities.logging.LogManager;
+import org.uacr.utilities.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Records how long each service and model takes to start up, so slow parts of robot start up can be found
+ */
+
+public class StartUpReport {
+
+    private static final Logger sLogger = LogManager.getLogger(StartUpReport.class);
+
+    private static final List<Timing> sTimings = new CopyOnWriteArrayList<>();
+
+    /**
+     * Records the start up of a component
+     * @param component the name of the component
+     * @param startNanos the System.nanoTime() when the component started
+     * @param endNanos the System.nanoTime() when the component finished
+     */
+    public static void record(String component, long startNanos, long endNanos) {
+        sTimings.add(new Timing(component, startNanos, endNanos - startNanos));
+    }
+
+    /**
+     * Creates an object and records how long it took
+     * @param component the name of the component
+     * @param supplier creates the object
+     * @return the created object
+     */
+    public static <T> T time(String component, Supplier<T> supplier) {
+        long startNanos = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            record(component, startNanos, System.nanoTime());
+        }
+    }
+
+    /**
+     * @return every recorded start up, in the order they started
+     */
+    public static List<Timing> getTimings() {
+        List<Timing> timings = new ArrayList<>(sTimings);
+        timings.sort(Comparator.comparingLong(Timing::getStartNanos));
+        return Collections.unmodifiableList(timings);
+    }
+
+    /**
+     * Logs when each component started relative to the first one and how long it took
+     */
+    public static void log() {
+        List<Timing> timings = getTimings();
+        if (timings.isEmpty()) {
+            return;
+        }
+
+        long firstStartNanos = timings.get(0).getStartNanos();
+        for (Timing timing : timings) {
+            sLogger.info("{} started at {} ms and took {} ms", timing.getComponent(),
+                    (timing.getStartNanos() - firstStartNanos) / 1000000, timing.getDurationNanos() / 1000000);
+        }
+    }
+
+    public static class Timing {
+
+        private final String fComponent;
+        private final long fStartNanos;
+        private final long fDurationNanos;
+
+        private Timing(String component, long startNanos, long durationNanos) {
+            fComponent = component;
+            fStartNanos = startNanos;
+            fDurationNanos = durationNanos;
+        }
+
+        public String getComponent() {
+            return fComponent;
+        }
+
+        public long getStartNanos() {
+            return fStartNanos;
+        }
+
+        public long getDurationNanos() {
+            return fDurationNanos;
+        }
+    }
+}
@@ -1,23 +1,52 @@
 package org.uacr.utilities.services.managers;
 
+import org.uacr.utilities.services.ParallelStartUp;
 import org.uacr.utilities.services.Service;
 import org.uacr.utilities.services.ServiceState;
 import org.uacr.utilities.services.ServiceWrapper;
+import org.uacr.utilities.services.StartUpReport;
 
 import java.util.List;
 
 public abstract class NonlinearServiceManager extends ServiceManager {
 
     private final String fThreadName;
+    private final ParallelStartUp fParallelStartUp;
+
+    private boolean mIsParallelStartUp;
 
     public NonlinearServiceManager(List<Service> services) {
         super(services);
 
         fThreadName = "NonlinearServiceManager Dispatch";
+        fParallelStartUp = new ParallelStartUp();
+        mIsParallelStartUp = false;
+
+        // The wrappers are created in the same order as the services
+        for (int s = 0; s < services.size(); s++) {
+            ServiceWrapper service = getServices().get(s);
+            fParallelStartUp.add(services.get(s), service.getServiceName(), () -> startUpService(service));
+        }
 
         setCurrentState(ServiceState.AWAITING_START);
     }
 
+    /**
+     * @param parallelStartUp whether the services start up at the same time instead of one after another
+     */
+    public void setParallelStartUp(boolean parallelStartUp) {
+        mIsParallelStartUp = parallelStartUp;
+    }
+
+    /**
+     * Makes a service wait for another service to start up when starting up in parallel
+     * @param service the service that waits
+     * @param dependency the service that has to start up first
+     */
+    public void addStartUpDependency(Service service, Service dependency) {
+        fParallelStartUp.addDependency(service, dependency);
+    }
+
     protected abstract void requestServiceUpdate(ServiceWrapper service);
 
     @Override
@@ -41,8 +70,19 @@ public abstract class NonlinearServiceManager extends ServiceManager {
 
             setCurrentState(ServiceState.STARTING);
 
-            for (ServiceWrapper service : getServices()) {
-                startUpService(service);
+            if (mIsParallelStartUp) {
+                try {
+                    fParallelStartUp.run(getExecutor());
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    stop();
+                }
+            } else {
+                for (ServiceWrapper service : getServices()) {
+                    long startNanos = System.nanoTime();
+                    startUpService(service);
+                    StartUpReport.record(service.getServiceName(), startNanos, System.nanoTime());
+                }
             }
 
             Thread.currentThread().setName(fThreadName);